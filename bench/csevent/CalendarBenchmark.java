@@ -0,0 +1,128 @@
+package csevent;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks adding, looking up, and removing bookings in calendars of several
+ * sizes. Each invocation goes through every event of the calendar once, so the
+ * time per operation is the time of an invocation over its size.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CalendarBenchmark {
+    /**
+     * The events of a calendar of the given size, and that calendar holding them all
+     */
+    @State(Scope.Thread)
+    public static class Filled {
+        /**
+         * The number of events in the calendar
+         */
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        /**
+         * The events, in a shuffled order
+         */
+        Event[] events;
+
+        /**
+         * A calendar holding every one of the events
+         */
+        EventCalendar calendar;
+
+        /**
+         * Makes the events and fills the calendar with them
+         */
+        @Setup(Level.Trial)
+        public void setUp(){
+            events = Fixtures.distinctEvents(size, new Random(Fixtures.SEED));
+            calendar = new EventCalendar(size);
+            calendar.addAll(events);
+        }
+    }
+
+    /**
+     * A calendar refilled before every invocation, for the benchmark that empties it
+     */
+    @State(Scope.Thread)
+    public static class Shrinking {
+        /**
+         * The calendar the events are removed from
+         */
+        EventCalendar calendar;
+
+        /**
+         * Refills the calendar with every one of the events
+         * @param filled the events of the calendar
+         */
+        @Setup(Level.Invocation)
+        public void refill(Filled filled){
+            if (calendar == null)
+                calendar = new EventCalendar(filled.size);
+            calendar.addAll(filled.events);
+        }
+    }
+
+    /**
+     * Adds every event to a new calendar
+     * @param filled the events to be added
+     * @return the number of events added
+     */
+    @Benchmark
+    public int add(Filled filled){
+        EventCalendar ec = new EventCalendar();
+        for (Event e : filled.events)
+            ec.add(e);
+        return ec.getNumEvents();
+    }
+
+    /**
+     * Looks up the booking of every event in the full calendar
+     * @param filled the events and the calendar holding them
+     * @return the number of bookings found
+     */
+    @Benchmark
+    public int contains(Filled filled){
+        int found = 0;
+        for (Event e : filled.events)
+            if (filled.calendar.contains(e.getDate(), e.getStartTime(), e.getLocation()))
+                found++;
+        return found;
+    }
+
+    /**
+     * Removes the booking of every event from the calendar
+     * @param filled the events to be removed
+     * @param shrinking the calendar holding them
+     * @return the number of bookings removed
+     */
+    @Benchmark
+    public int remove(Filled filled, Shrinking shrinking){
+        int removed = 0;
+        for (Event e : filled.events)
+            if (shrinking.calendar.remove(e.getDate(), e.getStartTime(), e.getLocation()))
+                removed++;
+        return removed;
+    }
+}
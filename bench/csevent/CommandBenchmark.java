@@ -0,0 +1,87 @@
+package csevent;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks tokenizing command lines with the command reader alone, then
+ * running the same lines through an organizer, which also checks and applies
+ * them. The time per operation is the time per line of the script.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(Fixtures.BATCH)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CommandBenchmark {
+    /**
+     * The script of commands, encoded as UTF-8
+     */
+    private byte[] script;
+
+    /**
+     * Makes the script of commands
+     */
+    @Setup(Level.Trial)
+    public void setUp(){
+        script = Fixtures.commandScript(Fixtures.BATCH, new Random(Fixtures.SEED));
+    }
+
+    /**
+     * Reads every token of every line of the script
+     * @return a value depending on every token read
+     * @throws IOException never, since the script is in memory
+     */
+    @Benchmark
+    public long parse() throws IOException {
+        CommandReader in = new CommandReader(new ByteArrayInputStream(script));
+        long tokens = 0;
+        while (in.nextLine()){
+            Command command = in.nextCommand();
+            Date date = in.nextDate();
+            Timeslot timeslot = in.nextTimeslot();
+            Location location = in.nextLocation();
+            if (command == Command.ADD){
+                Department department = in.nextDepartment();
+                String email = in.nextToken();
+                int duration = in.nextInt();
+                tokens += department.ordinal() + email.length() + duration;
+            }
+            tokens += date.getDay() + timeslot.ordinal() + location.ordinal();
+        }
+        return tokens;
+    }
+
+    /**
+     * Runs the script through an organizer of a new calendar
+     * @return the number of events in the calendar afterwards
+     */
+    @Benchmark
+    public int organizer(){
+        EventCalendar ec = new EventCalendar();
+        BufferedSink out = new BufferedSink(OutputStream.nullOutputStream());
+        new EventOrganizer(ec, out).run(new ByteArrayInputStream(script));
+        return ec.getNumEvents();
+    }
+}
@@ -0,0 +1,101 @@
+package csevent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * The inputs the benchmarks share. They are made from a fixed seed, so every
+ * run of the benchmarks measures the same work.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class Fixtures {
+    /**
+     * The seed every input is made from
+     */
+    static final long SEED = 20230918L;
+
+    /**
+     * The number of items each of the smaller benchmarks goes through per invocation
+     */
+    static final int BATCH = 100_000;
+
+    /**
+     * The number of events the reports and the rendering benchmarks are run over
+     */
+    static final int REPORT_SIZE = 10_000;
+
+    /**
+     * The email of each department, indexed by ordinal
+     */
+    static final String[] EMAILS = {"cs@rutgers.edu", "ee@rutgers.edu", "math@rutgers.edu",
+            "iti@rutgers.edu", "bait@rutgers.edu"};
+
+    /**
+     * A private constructor, since the fixtures are only static helpers
+     */
+    private Fixtures(){}
+
+    /**
+     * Makes the given number of events, no two booked at the same date, timeslot,
+     * and location, in a shuffled order
+     * @param n the number of events
+     * @param random the source of the events' details
+     * @return the events
+     */
+    static Event[] distinctEvents(int n, Random random){
+        Timeslot[] timeslots = Timeslot.values();
+        Location[] locations = Location.values();
+        Department[] departments = Department.values();
+        int perDay = timeslots.length * locations.length;
+        long firstDay = BookingClock.get().today() + 1;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        for (int i = n - 1; i > 0; i--){
+            int j = random.nextInt(i + 1), swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        Event[] events = new Event[n];
+        for (int i = 0; i < n; i++){
+            int slot = order[i];
+            Department d = departments[random.nextInt(departments.length)];
+            events[i] = new Event(Date.fromEpochDay(firstDay + slot / perDay),
+                    timeslots[slot % perDay / locations.length], locations[slot % locations.length],
+                    Contact.of(d, EMAILS[d.ordinal()]), 30 + 30 * random.nextInt(4));
+        }
+        return events;
+    }
+
+    /**
+     * Makes a script of add and remove commands inside the booking window, about
+     * one remove for every two adds, each line as a user would type it
+     * @param lines the number of lines in the script
+     * @param random the source of the commands' details
+     * @return the script, encoded as UTF-8
+     */
+    static byte[] commandScript(int lines, Random random){
+        Timeslot[] timeslots = Timeslot.values();
+        Location[] locations = Location.values();
+        Department[] departments = Department.values();
+        long firstDay = BookingClock.get().today() + 1;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++){
+            Date date = Date.fromEpochDay(firstDay + random.nextInt(150));
+            String timeslot = timeslots[random.nextInt(timeslots.length)].name().toLowerCase(Locale.ROOT);
+            String room = locations[random.nextInt(locations.length)].getRoomNum();
+            if (random.nextInt(3) == 0)
+                sb.append("R ").append(date).append(' ').append(timeslot).append(' ').append(room).append('\n');
+            else{
+                Department d = departments[random.nextInt(departments.length)];
+                sb.append("A ").append(date).append(' ').append(timeslot).append(' ').append(room).append(' ')
+                        .append(d.name()).append(' ').append(EMAILS[d.ordinal()]).append(' ')
+                        .append(30 + 30 * random.nextInt(4)).append('\n');
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,131 @@
+package csevent;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks rendering events as text, both building the line from scratch and
+ * reading back the line kept by the event, and encoding them as bytes. The time
+ * per operation is the time per event.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(Fixtures.REPORT_SIZE)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+    /**
+     * The events rendered, and a buffer long enough to encode any one of them
+     */
+    @State(Scope.Thread)
+    public static class Events {
+        /**
+         * The events rendered
+         */
+        Event[] events;
+
+        /**
+         * The buffer the events are encoded into
+         */
+        ByteBuffer buf;
+
+        /**
+         * Makes the events and the buffer
+         */
+        @Setup(Level.Trial)
+        public void setUp(){
+            events = Fixtures.distinctEvents(Fixtures.REPORT_SIZE, new Random(Fixtures.SEED));
+            int longest = 0;
+            for (Event e : events)
+                longest = Math.max(longest, e.encodedLength());
+            buf = ByteBuffer.allocate(longest);
+        }
+    }
+
+    /**
+     * The same events, made to forget the lines they kept before every invocation
+     */
+    @State(Scope.Thread)
+    public static class Fresh {
+        /**
+         * The events rendered
+         */
+        Event[] events;
+
+        /**
+         * Makes the events
+         */
+        @Setup(Level.Trial)
+        public void setUp(){
+            events = Fixtures.distinctEvents(Fixtures.REPORT_SIZE, new Random(Fixtures.SEED));
+        }
+
+        /**
+         * Makes every event forget the line it kept
+         */
+        @Setup(Level.Invocation)
+        public void forget(){
+            for (Event e : events)
+                e.setDuration(e.getDuration());
+        }
+    }
+
+    /**
+     * Renders every event from scratch
+     * @param fresh the events, which have not kept their lines
+     * @return the total length of the lines
+     */
+    @Benchmark
+    public long toStringFresh(Fresh fresh){
+        long length = 0;
+        for (Event e : fresh.events)
+            length += e.toString().length();
+        return length;
+    }
+
+    /**
+     * Renders every event, reading back the line it kept
+     * @param events the events, which keep their lines across invocations
+     * @return the total length of the lines
+     */
+    @Benchmark
+    public long toStringKept(Events events){
+        long length = 0;
+        for (Event e : events.events)
+            length += e.toString().length();
+        return length;
+    }
+
+    /**
+     * Encodes every event as bytes
+     * @param events the events and the buffer they are encoded into
+     * @return the total length of the encodings
+     */
+    @Benchmark
+    public long encodeTo(Events events){
+        long length = 0;
+        for (Event e : events.events){
+            events.buf.clear();
+            length += e.encodeTo(events.buf).position();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,111 @@
+package csevent;
+
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks every report over a full calendar, rendered into a buffered sink
+ * that throws its bytes away, so the cost of encoding the events is included.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ReportBenchmark {
+    /**
+     * The calendar the reports are run over
+     */
+    private EventCalendar calendar;
+
+    /**
+     * The sink the reports are written to
+     */
+    private BufferedSink out;
+
+    /**
+     * The first and last dates any event of the calendar takes place on
+     */
+    private Date first, last;
+
+    /**
+     * Fills the calendar and finds the range of dates its events span
+     */
+    @Setup(Level.Trial)
+    public void setUp(){
+        calendar = new EventCalendar(Fixtures.REPORT_SIZE);
+        calendar.addAll(Fixtures.distinctEvents(Fixtures.REPORT_SIZE, new Random(Fixtures.SEED)));
+        out = new BufferedSink(OutputStream.nullOutputStream());
+        Event[] all = calendar.getEvents();
+        first = all[0].getDate();
+        last = all[0].getDate();
+        for (Event e : all){
+            if (e.getDate().compareTo(first) < 0)
+                first = e.getDate();
+            if (e.getDate().compareTo(last) > 0)
+                last = e.getDate();
+        }
+    }
+
+    /**
+     * Prints the events in the order they were added
+     */
+    @Benchmark
+    public void print(){
+        calendar.print(out);
+        out.flush();
+    }
+
+    /**
+     * Prints the events ordered by date
+     */
+    @Benchmark
+    public void printByDate(){
+        calendar.printByDate(out);
+        out.flush();
+    }
+
+    /**
+     * Prints the events ordered by campus
+     */
+    @Benchmark
+    public void printByCampus(){
+        calendar.printByCampus(out);
+        out.flush();
+    }
+
+    /**
+     * Prints the events ordered by department
+     */
+    @Benchmark
+    public void printByDepartment(){
+        calendar.printByDepartment(out);
+        out.flush();
+    }
+
+    /**
+     * Prints the events between the first and last dates of the calendar
+     */
+    @Benchmark
+    public void printRange(){
+        calendar.printRange(first, last, out);
+        out.flush();
+    }
+}
@@ -0,0 +1,124 @@
+package csevent;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks checking dates, both for being real calendar dates and for falling
+ * inside the booking window, and validating contacts as they are made and
+ * looking up the shared ones. The time per operation is the time per date or
+ * contact checked.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(Fixtures.BATCH)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    /**
+     * The dates checked, mostly inside the booking window and some not real dates
+     */
+    private Date[] dates;
+
+    /**
+     * The department of each contact checked
+     */
+    private Department[] depts;
+
+    /**
+     * The email of each contact checked, some of them not at the university
+     */
+    private String[] emails;
+
+    /**
+     * Makes the dates and contacts to be checked
+     */
+    @Setup(Level.Trial)
+    public void setUp(){
+        Random random = new Random(Fixtures.SEED);
+        long today = BookingClock.get().today();
+        dates = new Date[Fixtures.BATCH];
+        for (int i = 0; i < Fixtures.BATCH; i++)
+            dates[i] = random.nextInt(4) == 0
+                    ? new Date(random.nextInt(14), random.nextInt(33), 2000 + random.nextInt(50))
+                    : Date.fromEpochDay(today - 60 + random.nextInt(300));
+        Department[] departments = Department.values();
+        depts = new Department[Fixtures.BATCH];
+        emails = new String[Fixtures.BATCH];
+        for (int i = 0; i < Fixtures.BATCH; i++){
+            depts[i] = departments[random.nextInt(departments.length)];
+            String email = Fixtures.EMAILS[random.nextInt(Fixtures.EMAILS.length)];
+            emails[i] = random.nextInt(5) == 0 ? email.replace("rutgers", "gmail") : email;
+        }
+    }
+
+    /**
+     * Checks every date for being a real calendar date
+     * @return the number of valid dates
+     */
+    @Benchmark
+    public int dateIsValid(){
+        int valid = 0;
+        for (Date d : dates)
+            if (d.isValid())
+                valid++;
+        return valid;
+    }
+
+    /**
+     * Checks every date for falling inside the booking window
+     * @return the number of dates inside the window
+     */
+    @Benchmark
+    public int dateIsWithinSixMonthsOfToday(){
+        int within = 0;
+        for (Date d : dates)
+            if (d.isWithinSixMonthsOfToday())
+                within++;
+        return within;
+    }
+
+    /**
+     * Makes a new contact of every department and email and validates it
+     * @return the number of valid contacts
+     */
+    @Benchmark
+    public int contactIsValid(){
+        int valid = 0;
+        for (int i = 0; i < depts.length; i++)
+            if (new Contact(depts[i], emails[i]).isValid())
+                valid++;
+        return valid;
+    }
+
+    /**
+     * Looks up the shared contact of every department and email and validates it
+     * @return the number of valid contacts
+     */
+    @Benchmark
+    public int contactOf(){
+        int valid = 0;
+        for (int i = 0; i < depts.length; i++)
+            if (Contact.of(depts[i], emails[i]).isValid())
+                valid++;
+        return valid;
+    }
+}
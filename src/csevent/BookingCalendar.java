@@ -0,0 +1,261 @@
+package csevent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The operations the event organizer, the journal, and the server need from a
+ * calendar, whether it is a single event calendar or one shared by several
+ * sessions at once. The base keeps no state of its own; each calendar decides
+ * how its events are stored and guarded.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+public abstract class BookingCalendar {
+    /**
+     * Checks if given event is part of the calendar.
+     * @param e the Event to be seen if it is part of the calendar.
+     * @return true if the event is part of the calendar, false otherwise.
+     */
+    public boolean contains(Event e){
+        return contains(e.getDate(), e.getStartTime(), e.getLocation());
+    }
+
+    /**
+     * Checks if an event is booked at the given date, timeslot, and location
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return true if such an event is part of the calendar, false otherwise.
+     */
+    public abstract boolean contains(Date date, Timeslot timeslot, Location location);
+
+    /**
+     * Attempts to add given event to the calendar; will not if an event is already
+     * booked at its date, timeslot, and location, or its date is not valid
+     * @param e the event to be added
+     * @return true if adding the event was successful, false otherwise.
+     */
+    public abstract boolean add(Event e);
+
+    /**
+     * Attempts to add given event to the calendar, recording it in the given
+     * journal first. Nothing else can change the booking between checking it,
+     * recording the event, and adding it, so the records of a booking are in
+     * the order its changes were made.
+     * @param e the event to be added
+     * @param journal the journal the event is recorded in
+     * @return true if adding the event was successful, false otherwise.
+     * @throws java.io.UncheckedIOException if the journal cannot be written to,
+     * in which case the event is not added
+     */
+    abstract boolean add(Event e, CommandJournal journal);
+
+    /**
+     * Adds every event in the given batch. Events that are already in the
+     * calendar, or that appear twice in the batch, are skipped.
+     * @param batch the events to be added
+     * @return the number of events that were added
+     */
+    public int addAll(Event[] batch){
+        int added = 0;
+        for (Event e : batch)
+            if (add(e))
+                added++;
+        return added;
+    }
+
+    /**
+     * Adds every event in the given collection.
+     * @param batch the events to be added
+     * @return the number of events that were added
+     */
+    public int addAll(Collection<? extends Event> batch){
+        return addAll(batch.toArray(new Event[0]));
+    }
+
+    /**
+     * Attempts to remove the given event from the calendar, assuming it's there.
+     * @param e the event to be removed
+     * @return true if the event was successfully removed, false otherwise
+     */
+    public boolean remove(Event e){
+        return remove(e.getDate(), e.getStartTime(), e.getLocation());
+    }
+
+    /**
+     * Attempts to remove the event booked at the given date, timeslot, and location
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return true if the event was successfully removed, false otherwise
+     */
+    public abstract boolean remove(Date date, Timeslot timeslot, Location location);
+
+    /**
+     * Attempts to remove the event booked at the given date, timeslot, and
+     * location, recording it in the given journal first. Nothing else can change
+     * the booking between checking it, recording the removal, and removing it.
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @param journal the journal the removal is recorded in
+     * @return true if the event was successfully removed, false otherwise
+     * @throws java.io.UncheckedIOException if the journal cannot be written to,
+     * in which case the event is not removed
+     */
+    abstract boolean remove(Date date, Timeslot timeslot, Location location, CommandJournal journal);
+
+    /**
+     * Drops every event taking place in a month before that of the given date.
+     * @param date a date in the first month to be kept
+     * @return the number of events dropped
+     */
+    public abstract int dropMonthsBefore(Date date);
+
+    /**
+     * Makes sure the calendar can hold at least the given number of events
+     * without having to grow again
+     * @param minCapacity the number of events the calendar should be able to hold
+     */
+    public abstract void ensureCapacity(int minCapacity);
+
+    /**
+     * Shrinks the calendar down to the number of events it holds
+     */
+    public abstract void trimToSize();
+
+    /**
+     * Accessor method for getting the list of events
+     * @return a copy of the list of events, in the order they were added
+     */
+    public abstract Event[] getEvents();
+
+    /**
+     * Accessor method for the events taking place at the given location
+     * @param l the location
+     * @return the events at the location, in date order
+     */
+    public abstract Event[] getEventsAt(Location l);
+
+    /**
+     * Accessor method for the events whose contact is in the given department
+     * @param d the department
+     * @return the events of the department, in date order
+     */
+    public abstract Event[] getEventsOf(Department d);
+
+    /**
+     * Accessor method for the events starting in the given timeslot
+     * @param t the timeslot
+     * @return the events starting in the timeslot, in date order
+     */
+    public abstract Event[] getEventsIn(Timeslot t);
+
+    /**
+     * Accessor method for the number of events registered in the calendar.
+     * @return the number of events in the calendar.
+     */
+    public abstract int getNumEvents();
+
+    /**
+     * Copies out the events one of the reports lists, in the order it lists them,
+     * so the report can be written after the calendar has moved on
+     * @param report the command of the report: PRINT, PRINT_BY_DATE,
+     * PRINT_BY_CAMPUS, or PRINT_BY_DEPARTMENT
+     * @return the events of the report, which are none if the calendar is empty
+     * @throws IllegalArgumentException if the command is not one of those reports
+     */
+    abstract Event[] report(Command report);
+
+    /**
+     * Saves every event in the calendar to a binary snapshot in the given file,
+     * replacing any snapshot already there
+     * @param path the file the snapshot is written to
+     * @throws IOException if the snapshot cannot be written
+     */
+    public abstract void save(Path path) throws IOException;
+
+    /**
+     * Saves every event in the calendar to a binary snapshot in the given file
+     * without waiting for it to be written
+     * @param path the file the snapshot is written to
+     * @return a future completing once the snapshot is on disk, or completing
+     * exceptionally with an UncheckedIOException if it could not be written
+     */
+    public abstract CompletableFuture<Void> saveAsync(Path path);
+
+    /**
+     * Prints all the events in the calendar in the order they were added
+     * @param out the sink the report is written to
+     */
+    public abstract void print(OutputSink out);
+
+    /**
+     * Prints all the events in the calendar ordered by campus, then building,
+     * then date
+     * @param out the sink the report is written to
+     */
+    public abstract void printByCampus(OutputSink out);
+
+    /**
+     * Prints all the events in the calendar ordered by department, then date
+     * @param out the sink the report is written to
+     */
+    public abstract void printByDepartment(OutputSink out);
+
+    /**
+     * Prints all the events in the calendar ordered by their dates, then timeslots
+     * @param out the sink the report is written to
+     */
+    public abstract void printByDate(OutputSink out);
+
+    /**
+     * Finds the events taking place between the given dates, both included
+     * @param from the first date of the range, which should be a valid date
+     * @param to the last date of the range, which should be a valid date
+     * @return the events in the range, ordered by date, then timeslot
+     */
+    public abstract Event[] range(Date from, Date to);
+
+    /**
+     * Prints the events taking place between the given dates, both included,
+     * ordered by their dates, then timeslots
+     * @param from the first date of the range, which should be a valid date
+     * @param to the last date of the range, which should be a valid date
+     * @param out the sink the report is written to
+     */
+    public abstract void printRange(Date from, Date to, OutputSink out);
+
+    /**
+     * Checks if the given room is free at the given date and timeslot, and that
+     * the date is inside the booking window
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return true if the room can be booked then, false otherwise
+     */
+    public abstract boolean isFree(Date date, Timeslot timeslot, Location location);
+
+    /**
+     * Finds the earliest free bookings inside the booking window
+     * @param n the most bookings to find
+     * @param location the only location to look at, or null for every location
+     * @return the packed keys of the free bookings, in date order, then timeslot,
+     * then location
+     */
+    abstract long[] findFree(int n, Location location);
+
+    /**
+     * Prints the earliest free bookings inside the booking window to the given sink
+     * @param n the most bookings to print
+     * @param location the only location to look at, or null for every location
+     * @param out the sink the report is written to
+     */
+    public void printFreeSlots(int n, Location location, OutputSink out){
+        EventCalendar.printFreeSlots(out, findFree(n, location));
+    }
+}
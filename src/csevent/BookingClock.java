@@ -0,0 +1,116 @@
+package csevent;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * The clock the event calendar reads "today" and the end of the 6-month booking
+ * window from. Both are worked out once per day and cached until the next
+ * midnight, so checking a date against them costs a clock read and two
+ * comparisons. A single shared clock is used by every date; it can be swapped
+ * for one built on a fixed or offset java.time.Clock.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+public final class BookingClock {
+    /**
+     * The number of months ahead of today events can be booked
+     */
+    private static final int BOOKING_MONTHS = 6;
+
+    /**
+     * The clock every date is checked against
+     */
+    private static volatile BookingClock shared = new BookingClock(Clock.systemDefaultZone());
+
+    /**
+     * The underlying clock giving the current instant and time zone
+     */
+    private final Clock clock;
+
+    /**
+     * The days worked out for the current day, replaced at every midnight
+     */
+    private volatile Window window;
+
+    /**
+     * Constructor for a booking clock reading the given clock
+     * @param clock the clock giving the current instant and time zone
+     */
+    public BookingClock(Clock clock){
+        this.clock = clock;
+        window = new Window(clock);
+    }
+
+    /**
+     * Accessor method for the clock shared by every date
+     * @return the shared booking clock
+     */
+    public static BookingClock get(){return shared;}
+
+    /**
+     * Mutator method for replacing the clock shared by every date
+     * @param clock the new shared booking clock
+     */
+    public static void set(BookingClock clock){shared = clock;}
+
+    /**
+     * Accessor method for today's date
+     * @return the epoch day of today
+     */
+    public long today(){return current().today;}
+
+    /**
+     * Accessor method for the last day events can be booked on, 6 months from today
+     * @return the epoch day of the last bookable day
+     */
+    public long horizon(){return current().horizon;}
+
+    /**
+     * Finds the window of the current day, working out a new one if midnight has
+     * passed since the last one was made
+     * @return the window of the current day
+     */
+    private Window current(){
+        Window w = window;
+        if (clock.millis() >= w.nextMidnight){
+            w = new Window(clock);
+            window = w;
+        }
+        return w;
+    }
+
+    /**
+     * The days worked out for a single day, which never change once made
+     */
+    private static final class Window {
+        /**
+         * The epoch day of today
+         */
+        private final long today;
+
+        /**
+         * The epoch day of the last bookable day
+         */
+        private final long horizon;
+
+        /**
+         * The instant of the next midnight, in milliseconds since the epoch
+         */
+        private final long nextMidnight;
+
+        /**
+         * Constructor for the window of the day the given clock is on
+         * @param clock the clock giving the current instant and time zone
+         */
+        private Window(Clock clock){
+            ZoneId zone = clock.getZone();
+            LocalDate date = LocalDate.now(clock);
+            today = date.toEpochDay();
+            horizon = date.plusMonths(BOOKING_MONTHS).toEpochDay();
+            nextMidnight = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+    }
+}
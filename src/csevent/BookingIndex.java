@@ -0,0 +1,203 @@
+package csevent;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from packed booking keys to the slots events occupy
+ * in the event calendar. Keys and values are kept in primitive arrays, so lookups
+ * neither box the key nor follow any references.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class BookingIndex {
+    /**
+     * The key marking an empty bucket; no valid booking packs to this value
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /**
+     * The value returned when a key is not in the index
+     */
+    static final int NOT_FOUND = -1;
+
+    /**
+     * The smallest number of buckets the index will use
+     */
+    private static final int MIN_BUCKETS = 8;
+
+    /**
+     * The multiplier used for spreading the keys over the buckets
+     */
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The keys stored in each bucket, or EMPTY
+     */
+    private long[] keys;
+
+    /**
+     * The slot stored alongside each key
+     */
+    private int[] values;
+
+    /**
+     * The number of keys in the index
+     */
+    private int size;
+
+    /**
+     * The number of bits a spread key is shifted by to get its home bucket
+     */
+    private int shift;
+
+    /**
+     * A default constructor for an empty index
+     */
+    BookingIndex(){this(0);}
+
+    /**
+     * Constructor for an index able to hold the given number of keys without resizing
+     * @param expectedSize the number of keys the index is expected to hold
+     */
+    BookingIndex(int expectedSize){allocate(bucketsFor(expectedSize));}
+
+    /**
+     * Finds the slot stored with the given key
+     * @param key the packed booking key
+     * @return the slot stored with the key, or NOT_FOUND if it is not in the index
+     */
+    int get(long key){
+        int mask = keys.length - 1;
+        for (int i = home(key); keys[i] != EMPTY; i = (i + 1) & mask)
+            if (keys[i] == key)
+                return values[i];
+        return NOT_FOUND;
+    }
+
+    /**
+     * Checks if the given key is in the index
+     * @param key the packed booking key
+     * @return true if the key is in the index, false otherwise
+     */
+    boolean containsKey(long key){return get(key) != NOT_FOUND;}
+
+    /**
+     * Stores the given slot with the given key, replacing any slot already stored
+     * @param key the packed booking key
+     * @param value the slot to be stored
+     * @return the slot previously stored with the key, or NOT_FOUND if there was none
+     */
+    int put(long key, int value){
+        int mask = keys.length - 1, i = home(key);
+        for (; keys[i] != EMPTY; i = (i + 1) & mask)
+            if (keys[i] == key){
+                int old = values[i];
+                values[i] = value;
+                return old;
+            }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > keys.length / 2)
+            rehash(keys.length * 2);
+        return NOT_FOUND;
+    }
+
+    /**
+     * Removes the given key from the index. The keys after it in its probe run
+     * are shifted back, so no tombstones are left behind.
+     * @param key the packed booking key
+     * @return the slot that was stored with the key, or NOT_FOUND if it was not there
+     */
+    int remove(long key){
+        int mask = keys.length - 1, i = home(key);
+        while (keys[i] != key){
+            if (keys[i] == EMPTY)
+                return NOT_FOUND;
+            i = (i + 1) & mask;
+        }
+        int old = values[i];
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask){
+            int h = home(keys[j]);
+            //move the key back only if its home bucket is not between the hole and it
+            if (((j - h) & mask) >= ((j - i) & mask)){
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY;
+        size--;
+        return old;
+    }
+
+    /**
+     * Makes sure the index can hold the given number of keys without resizing
+     * @param expectedSize the number of keys the index should be able to hold
+     */
+    void ensureCapacity(int expectedSize){
+        int buckets = bucketsFor(expectedSize);
+        if (buckets > keys.length)
+            rehash(buckets);
+    }
+
+    /**
+     * Shrinks the buckets down to the fewest that can hold the current keys
+     */
+    void trimToSize(){
+        int buckets = bucketsFor(size);
+        if (buckets < keys.length)
+            rehash(buckets);
+    }
+
+    /**
+     * Accessor method for the number of keys in the index
+     * @return the number of keys in the index
+     */
+    int size(){return size;}
+
+    /**
+     * Finds the home bucket of the given key
+     * @param key the packed booking key
+     * @return the bucket the key would be stored in without any collisions
+     */
+    private int home(long key){return (int) ((key * GOLDEN_RATIO) >>> shift);}
+
+    /**
+     * Calculates how many buckets are needed to hold the given number of keys
+     * while staying at most half full
+     * @param expectedSize the number of keys
+     * @return a power of two number of buckets
+     */
+    private static int bucketsFor(int expectedSize){
+        int buckets = MIN_BUCKETS;
+        while (buckets / 2 < expectedSize)
+            buckets *= 2;
+        return buckets;
+    }
+
+    /**
+     * Replaces the buckets with the given number of empty ones
+     * @param buckets the number of buckets, a power of two
+     */
+    private void allocate(int buckets){
+        keys = new long[buckets];
+        values = new int[buckets];
+        Arrays.fill(keys, EMPTY);
+        shift = Long.numberOfLeadingZeros(buckets - 1);
+        size = 0;
+    }
+
+    /**
+     * Moves every key into a new set of buckets of the given size
+     * @param buckets the new number of buckets, a power of two
+     */
+    private void rehash(int buckets){
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(buckets);
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != EMPTY)
+                put(oldKeys[i], oldValues[i]);
+    }
+}
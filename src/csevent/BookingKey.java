@@ -0,0 +1,81 @@
+package csevent;
+
+/**
+ * A helper class made to pack the booking identity of an event (its date, timeslot,
+ * and location) into a single long. The date is stored as its epoch day, so keys
+ * order the same way as the date, then the timeslot, then the location.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class BookingKey {
+    /**
+     * The number of timeslots an event can start in
+     */
+    static final int TIMESLOTS = Timeslot.values().length;
+
+    /**
+     * The number of locations an event can take place in
+     */
+    static final int LOCATIONS = Location.values().length;
+
+    /**
+     * The number of distinct bookings that can be made on a single day
+     */
+    static final int PER_DAY = TIMESLOTS * LOCATIONS;
+
+    /**
+     * A private constructor since this class only has static helpers
+     */
+    private BookingKey(){}
+
+    /**
+     * Packs the given booking identity into a single key
+     * @param date the date of the booking, which should be a valid date
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return the packed key of the booking
+     */
+    static long of(Date date, Timeslot timeslot, Location location){
+        return pack(date.toEpochDay(), timeslot.ordinal(), location.ordinal());
+    }
+
+    /**
+     * Packs the booking identity of the given event into a single key
+     * @param e the event, which should have a valid date
+     * @return the packed key of the event's booking
+     */
+    static long of(Event e){return of(e.getDate(), e.getStartTime(), e.getLocation());}
+
+    /**
+     * Packs the given booking identity, already broken down into primitives
+     * @param epochDay the number of days since January 1, 1970
+     * @param timeslot the ordinal of the timeslot
+     * @param location the ordinal of the location
+     * @return the packed key of the booking
+     */
+    static long pack(long epochDay, int timeslot, int location){
+        return (epochDay * TIMESLOTS + timeslot) * LOCATIONS + location;
+    }
+
+    /**
+     * Extracts the epoch day out of a packed key
+     * @param key the packed key
+     * @return the number of days since January 1, 1970 of the booking
+     */
+    static long epochDay(long key){return Math.floorDiv(key, PER_DAY);}
+
+    /**
+     * Extracts the timeslot ordinal out of a packed key
+     * @param key the packed key
+     * @return the ordinal of the booking's timeslot
+     */
+    static int timeslot(long key){return Math.floorMod(key, PER_DAY) / LOCATIONS;}
+
+    /**
+     * Extracts the location ordinal out of a packed key
+     * @param key the packed key
+     * @return the ordinal of the booking's location
+     */
+    static int location(long key){return Math.floorMod(key, LOCATIONS);}
+}
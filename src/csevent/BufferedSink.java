@@ -0,0 +1,320 @@
+package csevent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An output sink that encodes its output as UTF-8 into a byte buffer and writes
+ * the buffer to a channel whenever it fills up or the sink is flushed. A framed
+ * sink puts the length of each response before it, as an int, so a client can
+ * tell where one response ends and the next begins; only whole responses are
+ * written out, and the buffer grows to hold a response longer than it. A long
+ * run of events is rendered in parallel into chunks of its own, which are then
+ * written out in order, with a single gathering write if the channel takes one.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+public class BufferedSink implements OutputSink {
+    /**
+     * The number of bytes buffered before they are written out
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The most bytes a single character takes up in UTF-8
+     */
+    private static final int MAX_CHAR_BYTES = 4;
+
+    /**
+     * The channel the output is written to
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * The stream behind the channel, flushed along with the sink, or null
+     */
+    private final OutputStream stream;
+
+    /**
+     * Whether the sink flushes itself at the end of every line
+     */
+    private final boolean autoFlush;
+
+    /**
+     * Whether the length of each response is written before it
+     */
+    private final boolean framed;
+
+    /**
+     * The bytes that have not been written out yet
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The position in the buffer of the length of the response being written,
+     * if the sink is framed
+     */
+    private int frameStart;
+
+    /**
+     * The first half of a surrogate pair waiting for its second half, or 0
+     */
+    private char highSurrogate;
+
+    /**
+     * Constructor for a sink writing to the given stream, only when flushed or full
+     * @param out the stream the output is written to
+     */
+    public BufferedSink(OutputStream out){this(out, false);}
+
+    /**
+     * Constructor for a sink writing to the given stream
+     * @param out the stream the output is written to
+     * @param autoFlush whether the sink should flush at the end of every line
+     */
+    public BufferedSink(OutputStream out, boolean autoFlush){
+        this(Channels.newChannel(out), out, autoFlush, false);
+    }
+
+    /**
+     * Constructor for a sink writing to the given channel, only when flushed or full
+     * @param channel the channel the output is written to
+     */
+    public BufferedSink(WritableByteChannel channel){this(channel, null, false, false);}
+
+    /**
+     * Constructor for a sink writing to the given channel, only when flushed or full
+     * @param channel the channel the output is written to
+     * @param framed whether the length of each response should be written before it
+     */
+    BufferedSink(WritableByteChannel channel, boolean framed){this(channel, null, false, framed);}
+
+    /**
+     * Constructor for a sink writing to the given channel
+     * @param channel the channel the output is written to
+     * @param stream the stream behind the channel, or null
+     * @param autoFlush whether the sink should flush at the end of every line
+     * @param framed whether the length of each response should be written before it
+     */
+    private BufferedSink(WritableByteChannel channel, OutputStream stream, boolean autoFlush, boolean framed){
+        this.channel = channel;
+        this.stream = stream;
+        this.autoFlush = autoFlush;
+        this.framed = framed;
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        if (framed)
+            buffer.position(Integer.BYTES); //room for the length of the first response
+    }
+
+    /**
+     * Appends the given text to the output
+     * @param csq the text to be appended; null appends "null"
+     * @return this sink
+     */
+    @Override
+    public BufferedSink append(CharSequence csq){
+        if (csq == null)
+            csq = "null";
+        return append(csq, 0, csq.length());
+    }
+
+    /**
+     * Appends part of the given text to the output
+     * @param csq the text to be appended from; null appends part of "null"
+     * @param start the index of the first character to be appended
+     * @param end the index just past the last character to be appended
+     * @return this sink
+     */
+    @Override
+    public BufferedSink append(CharSequence csq, int start, int end){
+        if (csq == null)
+            csq = "null";
+        for (int i = start; i < end; i++)
+            append(csq.charAt(i));
+        return this;
+    }
+
+    /**
+     * Appends the given character to the output. A surrogate without its other
+     * half is written as a '?', the same way a PrintStream would; a high
+     * surrogate is held back until the next character shows whether it is paired.
+     * @param c the character to be appended
+     * @return this sink
+     */
+    @Override
+    public BufferedSink append(char c){
+        final int ONE_BYTE = 0x80, TWO_BYTES = 0x800;
+        makeRoom(MAX_CHAR_BYTES);
+        if (!Character.isLowSurrogate(c))
+            endSurrogate();
+        if (c < ONE_BYTE){
+            buffer.put((byte) c);
+            if (c == '\n' && autoFlush)
+                flush();
+        }else if (c < TWO_BYTES){
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }else if (Character.isHighSurrogate(c))
+            highSurrogate = c;
+        else if (Character.isLowSurrogate(c)){
+            if (highSurrogate == 0){
+                buffer.put(TextCodec.REPLACEMENT);
+                return this;
+            }
+            int cp = Character.toCodePoint(highSurrogate, c);
+            highSurrogate = 0;
+            buffer.put((byte) (0xF0 | (cp >> 18)));
+            buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        }else{
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return this;
+    }
+
+    /**
+     * Appends the given event to the output as written in reports, followed by
+     * a newline. The event is encoded straight into the buffer unless its line
+     * is longer than the whole buffer.
+     * @param event the event to be appended
+     * @return this sink
+     */
+    @Override
+    public BufferedSink println(Event event){
+        int length = event.encodedLength() + 1;
+        makeRoom(length + 1);
+        endSurrogate();
+        if (buffer.remaining() < length){
+            OutputSink.super.println(event);
+            return this;
+        }
+        event.encodeTo(buffer).put((byte) '\n');
+        if (autoFlush)
+            flush();
+        return this;
+    }
+
+    /**
+     * Appends each of the given events to the output, each followed by a newline.
+     * If there are enough of them, they are rendered in parallel and written
+     * straight to the channel after whatever is buffered, unless the sink is
+     * framed, since a frame has to be whole in the buffer to be written out.
+     * @param events the events to be appended, in order
+     * @return this sink
+     */
+    @Override
+    public BufferedSink printAll(Event[] events){
+        if (framed || !ParallelRenderer.isWorthIt(events.length)){
+            for (Event e : events)
+                println(e);
+            return this;
+        }
+        ByteBuffer[] chunks = ParallelRenderer.render(events);
+        makeRoom(1);
+        endSurrogate();
+        drain();
+        try{
+            if (channel instanceof GatheringByteChannel gathering){
+                while (chunks[chunks.length - 1].hasRemaining())
+                    gathering.write(chunks);
+            }else{
+                for (ByteBuffer chunk : chunks)
+                    while (chunk.hasRemaining())
+                        channel.write(chunk);
+            }
+        }catch (IOException ioe){
+            throw new UncheckedIOException(ioe);
+        }
+        if (autoFlush)
+            flush();
+        return this;
+    }
+
+    /**
+     * Ends the current response, writing its length before it, if the sink is framed
+     */
+    @Override
+    public void endResponse(){
+        if (!framed)
+            return;
+        makeRoom(1);
+        endSurrogate();
+        buffer.putInt(frameStart, buffer.position() - frameStart - Integer.BYTES);
+        frameStart = buffer.position();
+        makeRoom(Integer.BYTES);
+        frameStart = buffer.position();
+        buffer.position(frameStart + Integer.BYTES);
+    }
+
+    /**
+     * Writes out any output that is still buffered, except for a response not
+     * yet ended if the sink is framed
+     */
+    @Override
+    public void flush(){
+        makeRoom(1);
+        endSurrogate();
+        drain();
+        if (stream != null){
+            try{
+                stream.flush();
+            }catch (IOException ioe){
+                throw new UncheckedIOException(ioe);
+            }
+        }
+    }
+
+    /**
+     * Writes a '?' for a high surrogate still waiting for its other half, now
+     * that it is known not to be coming. The buffer must have room for a byte.
+     */
+    private void endSurrogate(){
+        if (highSurrogate == 0)
+            return;
+        highSurrogate = 0;
+        buffer.put(TextCodec.REPLACEMENT);
+    }
+
+    /**
+     * Makes sure the buffer has room for the given number of bytes, writing it
+     * out if it does not, and growing it if a framed response still fills it
+     * @param length the number of bytes about to be put in the buffer
+     */
+    private void makeRoom(int length){
+        if (buffer.remaining() >= length)
+            return;
+        drain();
+        if (framed && buffer.remaining() < length)
+            buffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length))
+                    .put(buffer.flip());
+    }
+
+    /**
+     * Writes every buffered byte out to the channel, except for the response not
+     * yet ended if the sink is framed, which is moved to the start of the buffer
+     * @throws UncheckedIOException if the channel cannot be written to
+     */
+    private void drain(){
+        int end = buffer.position(), pending = framed ? end - frameStart : 0;
+        buffer.flip().limit(end - pending);
+        try{
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }catch (IOException ioe){
+            throw new UncheckedIOException(ioe);
+        }finally{
+            buffer.limit(end).position(end - pending);
+            buffer.compact();
+            frameStart = 0;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package csevent;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * A helper class made to write the events of a calendar to a compact binary
+ * snapshot and to read them back. A snapshot is a header, followed by a
+ * dictionary of the emails of the contacts and one fixed-width record per event,
+ * in the order the events were added:
+ * <pre>
+ * header:     magic (int), version (short), record size (short), events (int),
+ *             emails (int), body length (int), CRC32C of the body (int)
+ * dictionary: for each email, its UTF-8 length (int) and bytes
+ * record:     epoch day (int), email (int), duration (short),
+ *             timeslot * LOCATIONS + location (byte), department (byte)
+ * </pre>
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class CalendarSnapshot {
+    /**
+     * The first bytes of every snapshot, "ECAL" in ASCII
+     */
+    private static final int MAGIC = 0x4543414C;
+
+    /**
+     * The version of the snapshot format written
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The number of bytes in the header
+     */
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * The number of bytes in the record of each event
+     */
+    private static final short RECORD_SIZE = 12;
+
+    /**
+     * The longest duration a record can hold
+     */
+    private static final int MAX_DURATION = Short.MAX_VALUE;
+
+    /**
+     * The suffix of the file a snapshot is written to before it replaces the old one
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Private constructor, since this class only has static helpers
+     */
+    private CalendarSnapshot(){}
+
+    /**
+     * Encodes the given events into a snapshot held in memory
+     * @param events the list of events, with null holes left by removals
+     * @param keys the packed booking key of the event in each slot of the list
+     * @param size the number of slots of the list in use
+     * @param count the number of events in the list
+     * @return a buffer holding the whole snapshot, ready to be written
+     * @throws IllegalArgumentException if an event lasts longer, or takes place
+     * further from 1970, than a record can hold
+     */
+    static ByteBuffer encode(Event[] events, long[] keys, int size, int count){
+        Map<String, Integer> ids = new HashMap<>();
+        int dictionaryLength = 0;
+        for (int i = 0; i < size; i++){
+            if (events[i] == null)
+                continue;
+            String email = events[i].getContact().getEmail();
+            if (!ids.containsKey(email)){
+                ids.put(email, ids.size());
+                dictionaryLength += Integer.BYTES + TextCodec.utf8Length(email);
+            }
+        }
+        String[] emails = new String[ids.size()];
+        for (Map.Entry<String, Integer> entry : ids.entrySet())
+            emails[entry.getValue()] = entry.getKey();
+        int bodyLength = dictionaryLength + count * RECORD_SIZE;
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + bodyLength);
+        buf.position(HEADER_SIZE);
+        for (String email : emails){
+            buf.putInt(TextCodec.utf8Length(email));
+            TextCodec.putUtf8(buf, email);
+        }
+        for (int i = 0; i < size; i++){
+            Event e = events[i];
+            if (e == null)
+                continue;
+            if (e.getDuration() < 0 || e.getDuration() > MAX_DURATION)
+                throw new IllegalArgumentException("Duration too long for a snapshot: " + e.getDuration());
+            long key = keys[i];
+            if (BookingKey.epochDay(key) != (int) BookingKey.epochDay(key))
+                throw new IllegalArgumentException("Date too far out for a snapshot: " + e.getDate());
+            buf.putInt((int) BookingKey.epochDay(key));
+            buf.putInt(ids.get(e.getContact().getEmail()));
+            buf.putShort((short) e.getDuration());
+            buf.put((byte) (BookingKey.timeslot(key) * BookingKey.LOCATIONS + BookingKey.location(key)));
+            buf.put((byte) e.getContact().getDepartment().ordinal());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buf.array(), HEADER_SIZE, bodyLength);
+        buf.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, RECORD_SIZE).putInt(8, count)
+                .putInt(12, emails.length).putInt(16, bodyLength).putInt(20, (int) crc.getValue());
+        return buf.rewind();
+    }
+
+    /**
+     * Writes an encoded snapshot to the given file. The snapshot is written to a
+     * temporary file next to it and forced to disk first, then moved over the
+     * old snapshot, so a crash never leaves a half-written one behind.
+     * @param snapshot the encoded snapshot
+     * @param path the file the snapshot is written to
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(ByteBuffer snapshot, Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            while (snapshot.hasRemaining())
+                out.write(snapshot);
+            out.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the snapshot in the given file into a new calendar, memory-mapping
+     * the file instead of copying it into a buffer
+     * @param path the file holding the snapshot
+     * @return a calendar holding the events of the snapshot, in the order they were added
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    static EventCalendar read(Path path) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)){
+            long length = in.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE)
+                throw new IOException("Not an event calendar snapshot: " + path);
+            return decode(in.map(FileChannel.MapMode.READ_ONLY, 0, length), path);
+        }
+    }
+
+    /**
+     * Decodes a snapshot into a new calendar, checking its header and checksum first
+     * @param buf the buffer holding the whole snapshot
+     * @param path the file the snapshot came from, for error messages
+     * @return a calendar holding the events of the snapshot
+     * @throws IOException if the buffer does not hold a valid snapshot
+     */
+    private static EventCalendar decode(ByteBuffer buf, Path path) throws IOException {
+        if (buf.getInt(0) != MAGIC)
+            throw new IOException("Not an event calendar snapshot: " + path);
+        if (buf.getShort(4) != VERSION || buf.getShort(6) != RECORD_SIZE)
+            throw new IOException("Unsupported snapshot version " + buf.getShort(4) + ": " + path);
+        int count = buf.getInt(8), emailCount = buf.getInt(12), bodyLength = buf.getInt(16);
+        if (count < 0 || emailCount < 0 || bodyLength != buf.limit() - HEADER_SIZE
+                || (long) count * RECORD_SIZE > bodyLength)
+            throw new IOException("Truncated snapshot: " + path);
+        CRC32C crc = new CRC32C();
+        crc.update(buf.slice(HEADER_SIZE, bodyLength));
+        if ((int) crc.getValue() != buf.getInt(20))
+            throw new IOException("Snapshot checksum does not match: " + path);
+        buf.position(HEADER_SIZE);
+        try{
+            String[] emails = new String[emailCount];
+            for (int i = 0; i < emailCount; i++){
+                int emailLength = buf.getInt();
+                if (emailLength < 0 || emailLength > buf.remaining())
+                    throw new IOException("Corrupt snapshot: " + path);
+                byte[] bytes = new byte[emailLength];
+                buf.get(bytes);
+                emails[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            if (buf.remaining() != count * RECORD_SIZE)
+                throw new IOException("Truncated snapshot: " + path);
+            Timeslot[] timeslots = Timeslot.values();
+            Location[] locations = Location.values();
+            Department[] departments = Department.values();
+            Event[] loaded = new Event[count];
+            for (int i = 0; i < count; i++){
+                Date date = Date.fromEpochDay(buf.getInt());
+                String email = emails[buf.getInt()];
+                int duration = buf.getShort(), slot = buf.get();
+                loaded[i] = new Event(date, timeslots[slot / BookingKey.LOCATIONS],
+                        locations[slot % BookingKey.LOCATIONS],
+                        Contact.of(departments[buf.get()], email), duration);
+            }
+            EventCalendar calendar = new EventCalendar(count);
+            if (!calendar.restore(loaded, count))
+                throw new IOException("Snapshot books the same room twice: " + path);
+            return calendar;
+        }catch (IndexOutOfBoundsException | BufferUnderflowException ex){
+            throw new IOException("Corrupt snapshot: " + path, ex);
+        }
+    }
+}
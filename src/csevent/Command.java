@@ -0,0 +1,89 @@
+package csevent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A helper enum made to handle the commands the event organizer accepts, each
+ * with the code it is typed as
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+public enum Command {
+    /**
+     * Adds an event to the calendar
+     */
+    ADD("A"),
+    /**
+     * Removes an event from the calendar
+     */
+    REMOVE("R"),
+    /**
+     * Prints the calendar in the order the events were added
+     */
+    PRINT("P"),
+    /**
+     * Prints the calendar ordered by date and timeslot
+     */
+    PRINT_BY_DATE("PE"),
+    /**
+     * Prints the calendar ordered by campus and building
+     */
+    PRINT_BY_CAMPUS("PC"),
+    /**
+     * Prints the calendar ordered by department
+     */
+    PRINT_BY_DEPARTMENT("PD"),
+    /**
+     * Prints the events between two dates
+     */
+    PRINT_RANGE("PR"),
+    /**
+     * Prints the next free timeslots
+     */
+    FIND_FREE("F"),
+    /**
+     * Quits the event organizer
+     */
+    QUIT("Q");
+
+    /**
+     * The code the command is typed as
+     */
+    private final String code;
+
+    /**
+     * The commands, looked up by their codes
+     */
+    private static final EnumLookup<Command> BY_CODE = new EnumLookup<>(values(), Command::getCode, false);
+
+    /**
+     * A mini constructor made to assign each command its code
+     * @param code the code the command is typed as
+     */
+    Command(String code){
+        this.code = code;
+    }
+
+    /**
+     * Accessor method for the code the command is typed as
+     * @return the code of the command
+     */
+    public String getCode(){return code;}
+
+    /**
+     * Finds the command with the given code
+     * @param code the code to look up
+     * @return the command with the code, or null if none has it
+     */
+    public static Command fromCode(CharSequence code){return BY_CODE.get(code);}
+
+    /**
+     * Finds the command whose code is written in the given bytes of a buffer
+     * @param buf the buffer holding the code
+     * @param start the position of the first byte of the code
+     * @param end the position just past the last byte of the code
+     * @return the command with the code, or null if none has it
+     */
+    static Command fromCode(ByteBuffer buf, int start, int end){return BY_CODE.get(buf, start, end);}
+}
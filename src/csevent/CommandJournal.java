@@ -0,0 +1,556 @@
+package csevent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only journal of the events added to and removed from a calendar,
+ * kept between snapshots so a crash loses nothing that was committed. Records
+ * are gathered in memory and written out together on commit, and the journal
+ * is forced to disk according to its sync policy, so a whole batch of commands
+ * costs a single force instead of one each. A journal is a header, followed by
+ * one record per change:
+ * <pre>
+ * header:  magic (int), version (short), reserved (short)
+ * record:  payload length (int), payload, CRC32C of the payload (int)
+ * add:     'A', epoch day (int), timeslot * LOCATIONS + location (byte),
+ *          department (byte), duration (short), email (UTF-8, rest of the payload)
+ * remove:  'R', epoch day (int), timeslot * LOCATIONS + location (byte)
+ * </pre>
+ * A record cut short by a crash is dropped when the journal is opened again.
+ * A journal can be shared by organizer sessions running on different threads.
+ * The calendar checks, records, and makes each change while holding whatever
+ * guards the booking, such as the lock of the booking's location, and the
+ * journal's own lock is only held while the record is appended. Changes to the
+ * same booking are recorded in the order they were made, and changes to
+ * different bookings do not depend on each other, so the records replay to the
+ * same calendar; an added event's sequence number is taken along with its
+ * record, so the events also replay in the order they were added. A record that
+ * cannot be written leaves the calendar as it was. A checkpoint waits for the
+ * changes being made and holds off new ones through a gate.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class CommandJournal implements Closeable {
+    /**
+     * When a journal forces the records it commits to disk
+     */
+    enum SyncPolicy {
+        /**
+         * Forces every commit to disk before it returns
+         */
+        ALWAYS,
+        /**
+         * Forces a commit to disk only if the last force was longer ago than the
+         * journal's window. A background thread forces whatever was left
+         * unforced once the window has passed, so a commit is on disk within
+         * two windows of being made even if no other commit follows it.
+         */
+        INTERVAL,
+        /**
+         * Never forces commits, leaving it to the operating system
+         */
+        NEVER
+    }
+
+    /**
+     * The first bytes of every journal, "EJRN" in ASCII
+     */
+    private static final int MAGIC = 0x454A524E;
+
+    /**
+     * The version of the journal format written
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The number of bytes in the header
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The number of bytes framing each payload: its length before it, its
+     * checksum after it
+     */
+    private static final int FRAME_SIZE = 8;
+
+    /**
+     * The number of bytes in the payload of a remove record
+     */
+    private static final int REMOVE_SIZE = 6;
+
+    /**
+     * The number of bytes in the payload of an add record, not counting the email
+     */
+    private static final int ADD_SIZE = 9;
+
+    /**
+     * The number of bytes gathered before they are written out without waiting
+     * for a commit
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The longest duration a record can hold
+     */
+    private static final int MAX_DURATION = Short.MAX_VALUE;
+
+    /**
+     * The default window of the interval sync policy, in milliseconds
+     */
+    static final long DEFAULT_WINDOW = 100;
+
+    /**
+     * The file the journal is kept in
+     */
+    private final Path path;
+
+    /**
+     * The channel the journal is written through
+     */
+    private final FileChannel channel;
+
+    /**
+     * When the journal forces its commits to disk
+     */
+    private final SyncPolicy policy;
+
+    /**
+     * The shortest time between forces under the interval policy, in milliseconds
+     */
+    private final long window;
+
+    /**
+     * The checksum used for every record
+     */
+    private final CRC32C crc;
+
+    /**
+     * The lock every write to the journal is made under. It is not a monitor,
+     * so a virtual thread forcing the journal to disk does not pin the thread
+     * carrying it.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * The gate every change is made through: held for reading while a change is
+     * recorded and made, and for writing by a checkpoint, so a snapshot never
+     * misses a change whose record it drops. It is always taken before the
+     * calendar's locks, and those before the journal's lock.
+     */
+    private final ReentrantReadWriteLock gate;
+
+    /**
+     * The records that have not been written out yet
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The position in the file just past the last whole record
+     */
+    private long end;
+
+    /**
+     * Whether records have been written out since the journal was last forced
+     */
+    private boolean unforced;
+
+    /**
+     * When the journal was last forced, in milliseconds
+     */
+    private long lastForce;
+
+    /**
+     * Whether the journal has been closed
+     */
+    private boolean closed;
+
+    /**
+     * The thread forcing commits left unforced under the interval policy, or null
+     */
+    private final Thread syncer;
+
+    /**
+     * Opens the journal in the given file, creating it if it does not exist yet.
+     * If the journal ends with a record cut short by a crash, the record is
+     * dropped so new records follow the last whole one.
+     * @param path the file the journal is kept in
+     * @param policy when commits are forced to disk
+     * @param window the shortest time between forces under the interval policy,
+     * in milliseconds
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    CommandJournal(Path path, SyncPolicy policy, long window) throws IOException {
+        this.path = path;
+        this.policy = policy;
+        this.window = window;
+        crc = new CRC32C();
+        lock = new ReentrantLock();
+        gate = new ReentrantReadWriteLock();
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try{
+            if (channel.size() == 0){
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION);
+                channel.write(header.rewind(), 0);
+                channel.force(true);
+            }
+            scan(null);
+            if (end < channel.size())
+                channel.truncate(end);
+            channel.position(end);
+        }catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+        syncer = policy == SyncPolicy.INTERVAL ? startSyncer() : null;
+    }
+
+    /**
+     * Starts the thread forcing the journal to disk once commits have been left
+     * unforced for the window, which does not keep the program running
+     * @return the thread
+     */
+    private Thread startSyncer(){
+        Thread t = new Thread(this::syncPeriodically, "journal-sync");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    /**
+     * Wakes up once every window and forces the journal if commits were left
+     * unforced and the last force was at least a window ago, until the journal
+     * is closed
+     */
+    private void syncPeriodically(){
+        try{
+            while (true){
+                Thread.sleep(Math.max(window, 1));
+                lock.lock();
+                try{
+                    if (closed)
+                        return;
+                    long now = System.currentTimeMillis();
+                    if (unforced && now - lastForce >= window)
+                        force(now);
+                }catch (IOException ioe){ //still unforced, so the next commit or close tries again and reports it
+                }finally{
+                    lock.unlock();
+                }
+            }
+        }catch (InterruptedException ie){ //the journal was closed
+        }
+    }
+
+    /**
+     * Applies every record in the journal to the given calendar, in the order
+     * they were made. This should be done once, after the calendar is loaded
+     * from the snapshot the journal was started after.
+     * @param calendar the calendar the records are applied to
+     * @return the number of records applied
+     * @throws IOException if the journal cannot be read
+     */
+    int replay(BookingCalendar calendar) throws IOException {return scan(calendar);}
+
+    /**
+     * Attempts to add the given event to the calendar, which records it in this
+     * journal before adding it. If the record cannot be written, the event is
+     * not added.
+     * @param calendar the calendar the journal is kept for
+     * @param e the event to be added
+     * @return true if the event was added, false otherwise
+     * @throws UncheckedIOException if the journal cannot be written to
+     * @throws IllegalArgumentException if the event lasts longer than a record can hold
+     */
+    boolean add(BookingCalendar calendar, Event e){
+        gate.readLock().lock();
+        try{
+            return calendar.add(e, this);
+        }finally{
+            gate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Attempts to remove the event at the given date, timeslot, and location from
+     * the calendar, which records it in this journal before removing it. If the
+     * record cannot be written, the event is not removed.
+     * @param calendar the calendar the journal is kept for
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return true if the event was removed, false otherwise
+     * @throws UncheckedIOException if the journal cannot be written to
+     */
+    boolean remove(BookingCalendar calendar, Date date, Timeslot timeslot, Location location){
+        gate.readLock().lock();
+        try{
+            return calendar.remove(date, timeslot, location, this);
+        }finally{
+            gate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a record of the given event about to be added to the calendar, and
+     * takes the sequence number it is added with while appending it, so the
+     * records are in the order of the sequence numbers. The calendar must hold
+     * whatever guards the booking, and must add the event once this returns.
+     * @param e the event about to be added
+     * @param sequence gives out the sequence number the event is added with
+     * @return the sequence number the event is added with
+     * @throws UncheckedIOException if the journal cannot be written to
+     * @throws IllegalArgumentException if the event lasts longer, or takes place
+     * further from 1970, than a record can hold
+     */
+    long logAdd(Event e, LongSupplier sequence){
+        if (e.getDuration() < 0 || e.getDuration() > MAX_DURATION)
+            throw new IllegalArgumentException("Duration too long for the journal: " + e.getDuration());
+        if (e.getDate().toEpochDay() != (int) e.getDate().toEpochDay())
+            throw new IllegalArgumentException("Date too far out for the journal: " + e.getDate());
+        String email = e.getContact().getEmail();
+        int length = ADD_SIZE + TextCodec.utf8Length(email);
+        lock.lock();
+        try{
+            int start = reserve(length);
+            buffer.put((byte) 'A').putInt((int) e.getDate().toEpochDay())
+                    .put(slot(e.getStartTime(), e.getLocation()))
+                    .put((byte) e.getContact().getDepartment().ordinal())
+                    .putShort((short) e.getDuration());
+            TextCodec.putUtf8(buffer, email);
+            seal(start, length);
+            return sequence.getAsLong();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a record of the event at the given date, timeslot, and location about
+     * to be removed from the calendar. The calendar must hold whatever guards
+     * the booking, and must remove the event once this returns.
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @throws UncheckedIOException if the journal cannot be written to
+     */
+    void logRemove(Date date, Timeslot timeslot, Location location){
+        lock.lock();
+        try{
+            int start = reserve(REMOVE_SIZE);
+            buffer.put((byte) 'R').putInt((int) date.toEpochDay()).put(slot(timeslot, location));
+            seal(start, REMOVE_SIZE);
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes out every record added since the last commit, forcing them to disk
+     * if the sync policy calls for it
+     * @throws UncheckedIOException if the journal cannot be written to
+     */
+    void commit(){
+        lock.lock();
+        try{
+            buffer.flip();
+            while (buffer.hasRemaining())
+                end += channel.write(buffer);
+            buffer.clear();
+            unforced = true;
+            long now = System.currentTimeMillis();
+            if (policy == SyncPolicy.ALWAYS || (policy == SyncPolicy.INTERVAL && now - lastForce >= window))
+                force(now);
+        }catch (IOException ioe){
+            throw new UncheckedIOException(ioe);
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Saves the given calendar to a snapshot and empties the journal, since every
+     * record in it is now part of the snapshot
+     * @param calendar the calendar the journal was kept for
+     * @param snapshot the file the snapshot is written to
+     * @throws IOException if the snapshot cannot be saved or the journal cannot be emptied
+     */
+    void checkpoint(BookingCalendar calendar, Path snapshot) throws IOException {
+        gate.writeLock().lock();
+        lock.lock();
+        try{
+            commit();
+            calendar.save(snapshot); //forced to disk before any record is dropped
+            channel.truncate(HEADER_SIZE);
+            channel.position(HEADER_SIZE);
+            end = HEADER_SIZE;
+            force(System.currentTimeMillis());
+        }finally{
+            lock.unlock();
+            gate.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Accessor method for the size of the journal, counting the records not yet written
+     * @return the number of bytes in the journal
+     */
+    long size(){
+        lock.lock();
+        try{
+            return end + buffer.position();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Commits any records left, forcing them to disk unless the sync policy is
+     * never to, and closes the journal
+     * @throws IOException if the journal cannot be written to or closed
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try (channel){
+            closed = true;
+            commit();
+            if (unforced && policy != SyncPolicy.NEVER)
+                force(System.currentTimeMillis());
+        }catch (UncheckedIOException uioe){
+            throw uioe.getCause();
+        }finally{
+            lock.unlock();
+            if (syncer != null)
+                syncer.interrupt();
+        }
+    }
+
+    /**
+     * Forces everything written to the journal to disk
+     * @param now the current time, in milliseconds
+     * @throws IOException if the journal cannot be forced
+     */
+    private void force(long now) throws IOException {
+        channel.force(false);
+        unforced = false;
+        lastForce = now;
+    }
+
+    /**
+     * Makes room in the buffer for a record and starts its frame; the lock must be held
+     * @param length the number of bytes in the payload of the record
+     * @return the position of the record in the buffer
+     */
+    private int reserve(int length){
+        if (buffer.remaining() < length + FRAME_SIZE){
+            commit(); //a full buffer ends the batch
+            if (buffer.capacity() < length + FRAME_SIZE)
+                buffer = ByteBuffer.allocate(length + FRAME_SIZE);
+        }
+        int start = buffer.position();
+        buffer.putInt(length);
+        return start;
+    }
+
+    /**
+     * Ends the frame of a record with the checksum of its payload
+     * @param start the position of the record in the buffer
+     * @param length the number of bytes in the payload of the record
+     */
+    private void seal(int start, int length){
+        crc.reset();
+        crc.update(buffer.array(), start + Integer.BYTES, length);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Packs a timeslot and location into the single byte a record keeps them in
+     * @param timeslot the timeslot
+     * @param location the location
+     * @return the packed byte
+     */
+    private static byte slot(Timeslot timeslot, Location location){
+        return (byte) (timeslot.ordinal() * BookingKey.LOCATIONS + location.ordinal());
+    }
+
+    /**
+     * Reads the journal up to the first record that is cut short or does not
+     * match its checksum, optionally applying each record to a calendar, and
+     * marks the end of the journal just past the last whole record
+     * @param calendar the calendar the records are applied to, or null to only
+     * find where the whole records end
+     * @return the number of whole records
+     * @throws IOException if the journal cannot be read or is not a journal
+     */
+    private int scan(BookingCalendar calendar) throws IOException {
+        long length = calendar == null ? channel.size() : end;
+        if (length < HEADER_SIZE || length > Integer.MAX_VALUE)
+            throw new IOException("Not an event journal: " + path);
+        ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        if (buf.getInt(0) != MAGIC)
+            throw new IOException("Not an event journal: " + path);
+        if (buf.getShort(Integer.BYTES) != VERSION)
+            throw new IOException("Unsupported journal version " + buf.getShort(Integer.BYTES) + ": " + path);
+        int at = HEADER_SIZE, count = 0;
+        while (buf.limit() - at >= FRAME_SIZE){
+            int payload = buf.getInt(at);
+            if (payload < REMOVE_SIZE || payload > buf.limit() - at - FRAME_SIZE)
+                break;
+            crc.reset();
+            crc.update(buf.slice(at + Integer.BYTES, payload));
+            if ((int) crc.getValue() != buf.getInt(at + Integer.BYTES + payload))
+                break;
+            if (calendar != null)
+                apply(buf.slice(at + Integer.BYTES, payload), calendar);
+            at += payload + FRAME_SIZE;
+            count++;
+        }
+        end = at;
+        return count;
+    }
+
+    /**
+     * Applies a single record to a calendar
+     * @param record the payload of the record
+     * @param calendar the calendar the record is applied to
+     * @throws IOException if the record is not an add or remove record
+     */
+    private void apply(ByteBuffer record, BookingCalendar calendar) throws IOException {
+        try{
+            byte type = record.get();
+            Date date = Date.fromEpochDay(record.getInt());
+            int slot = record.get();
+            Timeslot timeslot = Timeslot.values()[slot / BookingKey.LOCATIONS];
+            Location location = Location.values()[slot % BookingKey.LOCATIONS];
+            if (type == 'R'){
+                calendar.remove(date, timeslot, location);
+                return;
+            }
+            if (type != 'A')
+                throw new IOException("Unknown journal record " + type + ": " + path);
+            Department department = Department.values()[record.get()];
+            int duration = record.getShort();
+            byte[] email = new byte[record.remaining()];
+            record.get(email);
+            calendar.add(new Event(date, timeslot, location,
+                    Contact.of(department, new String(email, StandardCharsets.UTF_8)), duration));
+        }catch (IndexOutOfBoundsException | BufferUnderflowException e){
+            throw new IOException("Corrupt journal record: " + path, e);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package csevent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * A reader that breaks the commands typed into the event organizer into tokens
+ * straight out of a byte buffer. Dates, numbers, and enum tokens are decoded
+ * into primitives and constants without making any intermediate Strings; only
+ * the tokens that have to be kept as text, like emails, become Strings. Commands
+ * are either read from a stream into a heap buffer, or read from a file through
+ * a sliding window memory-mapped over it.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class CommandReader {
+    /**
+     * The number of bytes read from the input at a time
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The number of bytes of a command file mapped at a time
+     */
+    private static final int MAP_SIZE = 1 << 26;
+
+    /**
+     * The number base that numbers are written in
+     */
+    private static final int RADIX = 10;
+
+    /**
+     * The most digits a number can have without overflowing an int
+     */
+    private static final int MAX_DIGITS = 9;
+
+    /**
+     * The channel the commands are read from, or null if they are read from a file
+     */
+    private final ReadableByteChannel in;
+
+    /**
+     * The file the commands are read from, or null if they are read from a stream
+     */
+    private final FileChannel file;
+
+    /**
+     * The position in the file the mapped window starts at
+     */
+    private long mappedStart;
+
+    /**
+     * The number of bytes of the file mapped at a time, doubled whenever a single
+     * line does not fit
+     */
+    private long mapSize;
+
+    /**
+     * The buffer holding the bytes read from the input that have not been
+     * consumed yet, ready to be read
+     */
+    private ByteBuffer buf;
+
+    /**
+     * Whether the end of the input has been reached
+     */
+    private boolean eof;
+
+    /**
+     * The position in the buffer just past the end of the current line
+     */
+    private int lineEnd;
+
+    /**
+     * The position in the buffer the next line starts at
+     */
+    private int nextLine;
+
+    /**
+     * The position in the buffer the next token is searched for from
+     */
+    private int pos;
+
+    /**
+     * The position in the buffer the last token read starts at
+     */
+    private int tokenStart;
+
+    /**
+     * The position in the buffer just past the end of the last token read
+     */
+    private int tokenEnd;
+
+    /**
+     * Constructor for a reader over the given stream
+     * @param in the stream the commands are read from
+     */
+    CommandReader(InputStream in){
+        this.in = Channels.newChannel(in);
+        file = null;
+        buf = ByteBuffer.allocate(BUFFER_SIZE);
+        buf.flip();
+    }
+
+    /**
+     * Constructor for a reader over the given file, which is memory-mapped a
+     * window at a time instead of being copied into a buffer
+     * @param file the file the commands are read from
+     */
+    CommandReader(FileChannel file){
+        in = null;
+        this.file = file;
+        mapSize = MAP_SIZE;
+        buf = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Moves on to the next line of the input, reading more of the input if needed
+     * @return true if there is another line, false if the input has ended
+     * @throws IOException if the input cannot be read
+     */
+    boolean nextLine() throws IOException {
+        buf.position(nextLine);
+        int end;
+        while ((end = indexOfNewline(buf.position())) < 0){
+            if (eof){
+                if (!buf.hasRemaining())
+                    return false;
+                end = buf.limit();
+                break;
+            }
+            fill();
+        }
+        pos = buf.position();
+        lineEnd = end;
+        nextLine = end < buf.limit() ? end + 1 : end;
+        return true;
+    }
+
+    /**
+     * Checks if the whole of the next line has already been read into the buffer,
+     * so moving on to it will not have to wait for more input
+     * @return true if the next line is already buffered, false otherwise
+     */
+    boolean hasBufferedLine(){return indexOfNewline(nextLine) >= 0;}
+
+    /**
+     * Checks if the current line has another token
+     * @return true if there is another token on the line, false otherwise
+     */
+    boolean hasMoreTokens(){
+        skipSpaces();
+        return pos < lineEnd;
+    }
+
+    /**
+     * Reads the next token as a command code
+     * @return the command with the code, or null if no command has it
+     */
+    Command nextCommand(){
+        token();
+        return Command.fromCode(buf, tokenStart, tokenEnd);
+    }
+
+    /**
+     * Reads the next token as a timeslot name, ignoring case
+     * @return the timeslot with the name, or null if no timeslot has it
+     */
+    Timeslot nextTimeslot(){
+        token();
+        return Timeslot.fromName(buf, tokenStart, tokenEnd);
+    }
+
+    /**
+     * Reads the next token as a room number, ignoring case
+     * @return the location with the room number, or null if no location has it
+     */
+    Location nextLocation(){
+        token();
+        return Location.fromRoom(buf, tokenStart, tokenEnd);
+    }
+
+    /**
+     * Reads the next token as a department code, ignoring case
+     * @return the department with the code, or null if no department has it
+     */
+    Department nextDepartment(){
+        token();
+        return Department.fromCode(buf, tokenStart, tokenEnd);
+    }
+
+    /**
+     * Reads the next token as a date written in the form MM/DD/YYYY
+     * @return the date, which may still not be a valid calendar date
+     * @throws NumberFormatException if the token is not three numbers separated by slashes
+     */
+    Date nextDate(){
+        token();
+        final int PARTS = 3;
+        int month = 0, day = 0, year = 0, part = 0, digits = 0;
+        for (int i = tokenStart; i < tokenEnd; i++){
+            byte b = buf.get(i);
+            if (b == '/' && digits > 0 && part < PARTS - 1){
+                part++;
+                digits = 0;
+            }else if (b >= '0' && b <= '9' && digits < MAX_DIGITS){
+                int digit = b - '0';
+                if (part == 0)
+                    month = month * RADIX + digit;
+                else if (part == 1)
+                    day = day * RADIX + digit;
+                else
+                    year = year * RADIX + digit;
+                digits++;
+            }else
+                throw new NumberFormatException("Invalid date: " + lastToken());
+        }
+        if (part != PARTS - 1 || digits == 0)
+            throw new NumberFormatException("Invalid date: " + lastToken());
+        return new Date(month, day, year);
+    }
+
+    /**
+     * Reads the next token as a whole number, with an optional leading sign.
+     * Numbers too large to fit in an int are clamped to the int range, so they
+     * are still rejected as out of range rather than as not being numbers.
+     * @return the number, clamped to the int range
+     * @throws NumberFormatException if the token is not a number
+     */
+    int nextInt(){
+        token();
+        int i = tokenStart;
+        boolean negative = false;
+        if (i < tokenEnd && (buf.get(i) == '-' || buf.get(i) == '+'))
+            negative = buf.get(i++) == '-';
+        if (i == tokenEnd)
+            throw new NumberFormatException("For input string: \"" + lastToken() + "\"");
+        final long LIMIT = (long) Integer.MAX_VALUE + 1;
+        long value = 0;
+        for (; i < tokenEnd; i++){
+            byte b = buf.get(i);
+            if (b < '0' || b > '9')
+                throw new NumberFormatException("For input string: \"" + lastToken() + "\"");
+            value = Math.min(value * RADIX + (b - '0'), LIMIT); //stops growing once out of range
+        }
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, negative ? -value : value));
+    }
+
+    /**
+     * Reads the next token as text
+     * @return the token
+     */
+    String nextToken(){
+        token();
+        return lastToken();
+    }
+
+    /**
+     * Makes a String out of the last token read, such as for an error message
+     * @return the last token read
+     */
+    String lastToken(){
+        byte[] bytes = new byte[tokenEnd - tokenStart];
+        buf.get(tokenStart, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds the bounds of the next token on the current line
+     * @throws NoSuchElementException if the line has no more tokens
+     */
+    private void token(){
+        if (!hasMoreTokens())
+            throw new NoSuchElementException();
+        tokenStart = pos;
+        while (pos < lineEnd && !isSpace(buf.get(pos)))
+            pos++;
+        tokenEnd = pos;
+    }
+
+    /**
+     * Moves past any spaces before the next token on the current line
+     */
+    private void skipSpaces(){
+        while (pos < lineEnd && isSpace(buf.get(pos)))
+            pos++;
+    }
+
+    /**
+     * Checks if a byte separates tokens
+     * @param b the byte
+     * @return true if the byte is a space, tab, or carriage return, false otherwise
+     */
+    private static boolean isSpace(byte b){return b == ' ' || b == '\t' || b == '\r' || b == '\f';}
+
+    /**
+     * Finds the next newline in the buffer
+     * @param from the position to search from
+     * @return the position of the newline, or -1 if the buffer has none
+     */
+    private int indexOfNewline(int from){
+        for (int i = from; i < buf.limit(); i++)
+            if (buf.get(i) == '\n')
+                return i;
+        return -1;
+    }
+
+    /**
+     * Reads more of the input into the buffer, moving the unconsumed bytes to the
+     * front and growing the buffer if a single line fills all of it
+     * @throws IOException if the input cannot be read
+     */
+    private void fill() throws IOException {
+        if (file != null){
+            remap();
+            return;
+        }
+        buf.compact();
+        if (!buf.hasRemaining()){
+            ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+            buf.flip();
+            bigger.put(buf);
+            buf = bigger;
+        }
+        if (in.read(buf) < 0)
+            eof = true;
+        buf.flip();
+    }
+
+    /**
+     * Maps the next window of the file, starting at the first unconsumed byte
+     * @throws IOException if the file cannot be mapped
+     */
+    private void remap() throws IOException {
+        long start = mappedStart + buf.position();
+        if (buf.remaining() >= mapSize)
+            mapSize *= 2; //a single line filled the whole window
+        long length = Math.min(mapSize, file.size() - start);
+        buf = file.map(FileChannel.MapMode.READ_ONLY, start, length);
+        mappedStart = start;
+        eof = start + length >= file.size();
+    }
+}
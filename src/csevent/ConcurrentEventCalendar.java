@@ -0,0 +1,831 @@
+package csevent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * An event calendar that can be shared by several organizer sessions at once.
+ * The calendar is split into one stripe per location, each an ordinary event
+ * calendar behind its own lock. Since a booking key includes the location,
+ * checking for a duplicate and adding the event happen under a single stripe's
+ * lock, while bookings of different rooms never wait on each other.
+ * <p>
+ * Reports never take a lock in the common case. A report copies every stripe's
+ * events in the order they were added, in date order, and by department and
+ * timeslot, straight out of the partitions of the stripe's calendar and their
+ * indexes, which keep every one of those orders already, all under optimistic
+ * reads, then checks that no stripe was written to since; if none was, the
+ * copies are a consistent snapshot of the whole calendar, which is rendered
+ * without holding anything. The view copied from a stripe is kept
+ * until the stripe is next written to, so only stripes that changed are copied
+ * again. Only after several failed attempts does a report lock the stripes for
+ * reading, and then only while copying. The events of every stripe are added
+ * with sequence numbers given out across the whole calendar, so the stripes can
+ * be merged back into the order the events were added in.
+ * Reports take the sink they write to, since each session has its own.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+public final class ConcurrentEventCalendar extends BookingCalendar {
+    /**
+     * The number of times a report tries to copy the stripes without locking
+     * before it locks them
+     */
+    private static final int OPTIMISTIC_ATTEMPTS = 4;
+
+    /**
+     * A single location's share of the calendar and the lock guarding it
+     */
+    private static final class Stripe {
+        /**
+         * The location every event of the stripe takes place at
+         */
+        private final Location location;
+
+        /**
+         * The events taking place at the location, guarded by the lock
+         */
+        private final EventCalendar calendar;
+
+        /**
+         * The lock guarding every other field of the stripe but the view
+         */
+        private final StampedLock lock;
+
+        /**
+         * The number of times the stripe has been written to
+         */
+        private long version;
+
+        /**
+         * The most recent view of the stripe built by a report, if any
+         */
+        private volatile View view;
+
+        /**
+         * Constructor for an empty stripe of the given location
+         * @param location the location of the stripe
+         */
+        private Stripe(Location location){
+            this.location = location;
+            calendar = new EventCalendar();
+            lock = new StampedLock();
+        }
+    }
+
+    /**
+     * An immutable copy of a stripe as it was at one version, in every order
+     * the reports need it. The sorted copies keep the booking key each event
+     * was added with, so the stripes are merged without working out any key.
+     */
+    private static final class View {
+        /**
+         * The version of the stripe the view was copied from
+         */
+        private final long version;
+
+        /**
+         * The events in the order they were added
+         */
+        private final Event[] byAdded;
+
+        /**
+         * The sequence number each event was added with, matching byAdded
+         */
+        private final long[] sequence;
+
+        /**
+         * The events ordered by their booking keys, that is by date, then timeslot
+         */
+        private final SortedRun byKey;
+
+        /**
+         * The events of each department in booking key order, indexed by ordinal
+         */
+        private final SortedRun[] byDepartment;
+
+        /**
+         * The events starting in each timeslot in booking key order, indexed by ordinal
+         */
+        private final SortedRun[] byTimeslot;
+
+        /**
+         * Constructor for the view of a stripe's calendar as it is now. Every
+         * order is copied out of the calendar's partitions and their indexes,
+         * so nothing is sorted or filtered.
+         * @param version the version of the stripe the calendar belongs to
+         * @param calendar the stripe's calendar
+         */
+        private View(long version, EventCalendar calendar){
+            this.version = version;
+            int n = calendar.getNumEvents();
+            byAdded = new Event[n];
+            sequence = new long[n];
+            calendar.copyInOrderAdded(byAdded, sequence);
+            byKey = calendar.copyRun(MonthPartition::byDate);
+            Department[] departments = Department.values();
+            byDepartment = new SortedRun[departments.length];
+            for (Department d : departments)
+                byDepartment[d.ordinal()] = calendar.copyRun(p -> p.of(d));
+            Timeslot[] timeslots = Timeslot.values();
+            byTimeslot = new SortedRun[timeslots.length];
+            for (Timeslot t : timeslots)
+                byTimeslot[t.ordinal()] = calendar.copyRun(p -> p.in(t));
+        }
+    }
+
+    /**
+     * The stripe of each location, indexed by ordinal
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * The sequence number given to the next event added, across every stripe
+     */
+    private final AtomicLong nextSequence;
+
+    /**
+     * The number of events in the calendar, across every stripe
+     */
+    private final AtomicInteger numEvents;
+
+    /**
+     * Default constructor for an empty calendar
+     */
+    public ConcurrentEventCalendar(){
+        Location[] locations = Location.values();
+        stripes = new Stripe[locations.length];
+        for (Location l : locations)
+            stripes[l.ordinal()] = new Stripe(l);
+        nextSequence = new AtomicLong();
+        numEvents = new AtomicInteger();
+    }
+
+    /**
+     * Constructor for a calendar holding every event of the given calendar, added
+     * in the same order, such as one just loaded from a snapshot
+     * @param source the calendar whose events are added
+     */
+    public ConcurrentEventCalendar(EventCalendar source){
+        this();
+        for (Event e : source.getEvents())
+            add(e);
+    }
+
+    /**
+     * Checks if an event is booked at the given date, timeslot, and location
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return true if such an event is part of the calendar, false otherwise.
+     */
+    @Override
+    public boolean contains(Date date, Timeslot timeslot, Location location){
+        Stripe s = stripes[location.ordinal()];
+        long stamp = s.lock.readLock();
+        try{
+            return s.calendar.contains(date, timeslot, location);
+        }finally{
+            s.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Attempts to add given event to the calendar; will not if an event is already
+     * booked at its date, timeslot, and location, or its date is not valid. The
+     * check and the addition happen under the lock of the event's location.
+     * @param e the event to be added
+     * @return true if adding the event was successful, false otherwise.
+     */
+    @Override
+    public boolean add(Event e){return add(e, null);}
+
+    /**
+     * Attempts to add given event to the calendar, recording it in the given
+     * journal first. The check, the record, and the addition all happen under
+     * the lock of the event's location, and the sequence number of the event is
+     * taken along with its record.
+     * @param e the event to be added
+     * @param journal the journal the event is recorded in, or null
+     * @return true if adding the event was successful, false otherwise.
+     */
+    @Override
+    boolean add(Event e, CommandJournal journal){
+        Stripe s = stripes[e.getLocation().ordinal()];
+        long stamp = s.lock.writeLock();
+        try{
+            if (!e.getDate().isValid() || s.calendar.contains(e))
+                return false;
+            long seq = journal == null ? nextSequence.getAndIncrement()
+                    : journal.logAdd(e, nextSequence::getAndIncrement);
+            if (!s.calendar.add(e, seq))
+                return false;
+            s.version++;
+            numEvents.incrementAndGet();
+            return true;
+        }finally{
+            s.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Attempts to remove the event booked at the given date, timeslot, and location
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return true if the event was successfully removed, false otherwise
+     */
+    @Override
+    public boolean remove(Date date, Timeslot timeslot, Location location){
+        return remove(date, timeslot, location, null);
+    }
+
+    /**
+     * Attempts to remove the event booked at the given date, timeslot, and
+     * location, recording it in the given journal first. The check, the record,
+     * and the removal all happen under the lock of the location.
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @param journal the journal the removal is recorded in, or null
+     * @return true if the event was successfully removed, false otherwise
+     */
+    @Override
+    boolean remove(Date date, Timeslot timeslot, Location location, CommandJournal journal){
+        Stripe s = stripes[location.ordinal()];
+        long stamp = s.lock.writeLock();
+        try{
+            if (!s.calendar.contains(date, timeslot, location))
+                return false;
+            if (journal != null)
+                journal.logRemove(date, timeslot, location);
+            if (!s.calendar.remove(date, timeslot, location))
+                return false;
+            s.version++;
+            numEvents.decrementAndGet();
+            return true;
+        }finally{
+            s.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Makes sure the calendar can hold at least the given number of events,
+     * spread evenly over the locations, without having to grow again
+     * @param minCapacity the number of events the calendar should be able to hold
+     */
+    @Override
+    public void ensureCapacity(int minCapacity){
+        int perStripe = minCapacity / stripes.length + 1;
+        for (Stripe s : stripes){
+            long stamp = s.lock.writeLock();
+            try{
+                s.calendar.ensureCapacity(perStripe);
+            }finally{
+                s.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Shrinks every stripe down to the number of events it holds
+     */
+    @Override
+    public void trimToSize(){
+        for (Stripe s : stripes){
+            long stamp = s.lock.writeLock();
+            try{
+                s.calendar.trimToSize();
+            }finally{
+                s.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Drops every event taking place in a month before that of the given date.
+     * Each stripe drops whole partitions of its calendar, one stripe at a time.
+     * @param date a date in the first month to be kept
+     * @return the number of events dropped
+     */
+    @Override
+    public int dropMonthsBefore(Date date){
+        int dropped = 0;
+        for (Stripe s : stripes){
+            long stamp = s.lock.writeLock();
+            try{
+                int n = s.calendar.dropMonthsBefore(date);
+                if (n > 0){
+                    s.version++;
+                    numEvents.addAndGet(-n);
+                }
+                dropped += n;
+            }finally{
+                s.lock.unlockWrite(stamp);
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Accessor method for getting the list of events
+     * @return a copy of the list of events, in the order they were added
+     */
+    @Override
+    public Event[] getEvents(){return inOrderAdded(snapshot());}
+
+    /**
+     * Accessor method for the events taking place at the given location
+     * @param l the location
+     * @return the events at the location, in date order
+     */
+    @Override
+    public Event[] getEventsAt(Location l){
+        SortedRun run = snapshot()[l.ordinal()].byKey;
+        Event[] at = new Event[run.size()];
+        run.copyTo(at, 0);
+        return at;
+    }
+
+    /**
+     * Accessor method for the events whose contact is in the given department
+     * @param d the department
+     * @return the events of the department, in date order
+     */
+    @Override
+    public Event[] getEventsOf(Department d){return ofDepartment(snapshot(), d);}
+
+    /**
+     * Accessor method for the events starting in the given timeslot
+     * @param t the timeslot
+     * @return the events starting in the timeslot, in date order
+     */
+    @Override
+    public Event[] getEventsIn(Timeslot t){
+        View[] views = snapshot();
+        SortedRun[] runs = new SortedRun[views.length];
+        for (int i = 0; i < views.length; i++)
+            runs[i] = views[i].byTimeslot[t.ordinal()];
+        return mergeByKey(runs);
+    }
+
+    /**
+     * Accessor method for the number of events registered in the calendar.
+     * @return the number of events in the calendar.
+     */
+    @Override
+    public int getNumEvents(){return numEvents.get();}
+
+    /**
+     * Saves every event in the calendar to a binary snapshot in the given file
+     * @param path the file the snapshot is written to
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Override
+    public void save(Path path) throws IOException {CalendarSnapshot.write(encode(), path);}
+
+    /**
+     * Saves every event in the calendar to a binary snapshot in the given file
+     * without waiting for it to be written
+     * @param path the file the snapshot is written to
+     * @return a future completing once the snapshot is on disk, or completing
+     * exceptionally with an UncheckedIOException if it could not be written
+     */
+    @Override
+    public CompletableFuture<Void> saveAsync(Path path){
+        ByteBuffer snapshot = encode();
+        return CompletableFuture.runAsync(() -> {
+            try{
+                CalendarSnapshot.write(snapshot, path);
+            }catch (IOException ioe){
+                throw new UncheckedIOException(ioe);
+            }
+        });
+    }
+
+    /**
+     * Copies out the events one of the reports lists, in the order it lists them,
+     * from a single consistent snapshot of the stripes
+     * @param report the command of the report: PRINT, PRINT_BY_DATE,
+     * PRINT_BY_CAMPUS, or PRINT_BY_DEPARTMENT
+     * @return the events of the report, which are none if the calendar is empty
+     * @throws IllegalArgumentException if the command is not one of those reports
+     */
+    @Override
+    Event[] report(Command report){
+        View[] views = snapshot();
+        switch (report){
+            case PRINT:
+                return inOrderAdded(views);
+            case PRINT_BY_DATE:
+                SortedRun[] runs = new SortedRun[views.length];
+                for (int i = 0; i < views.length; i++)
+                    runs[i] = views[i].byKey;
+                return mergeByKey(runs);
+            case PRINT_BY_CAMPUS:
+                Event[] byCampus = new Event[count(views)];
+                int k = 0;
+                for (Location l : EventCalendar.CAMPUS_ORDER)
+                    k = views[l.ordinal()].byKey.copyTo(byCampus, k);
+                return byCampus;
+            case PRINT_BY_DEPARTMENT:
+                Event[] byDepartment = new Event[count(views)];
+                int j = 0;
+                for (Department d : Department.values())
+                    for (Event e : ofDepartment(views, d))
+                        byDepartment[j++] = e;
+                return byDepartment;
+            default:
+                throw new IllegalArgumentException("Not a report: " + report);
+        }
+    }
+
+    /**
+     * Prints all the events in the calendar in the order they were added
+     * @param out the sink the report is written to
+     */
+    @Override
+    public void print(OutputSink out){printOrEmpty(out, EventCalendar.HEADER, report(Command.PRINT));}
+
+    /**
+     * Prints all the events in the calendar ordered by campus, then building,
+     * then date
+     * @param out the sink the report is written to
+     */
+    @Override
+    public void printByCampus(OutputSink out){
+        printOrEmpty(out, EventCalendar.CAMPUS_HEADER, report(Command.PRINT_BY_CAMPUS));
+    }
+
+    /**
+     * Prints all the events in the calendar ordered by department, then date
+     * @param out the sink the report is written to
+     */
+    @Override
+    public void printByDepartment(OutputSink out){
+        printOrEmpty(out, EventCalendar.DEPARTMENT_HEADER, report(Command.PRINT_BY_DEPARTMENT));
+    }
+
+    /**
+     * Prints all the events in the calendar ordered by their dates, then timeslots
+     * @param out the sink the report is written to
+     */
+    @Override
+    public void printByDate(OutputSink out){
+        printOrEmpty(out, EventCalendar.DATE_HEADER, report(Command.PRINT_BY_DATE));
+    }
+
+    /**
+     * Finds the events taking place between the given dates, both included
+     * @param from the first date of the range, which should be a valid date
+     * @param to the last date of the range, which should be a valid date
+     * @return the events in the range, ordered by date, then timeslot
+     */
+    @Override
+    public Event[] range(Date from, Date to){return inRange(snapshot(), from, to);}
+
+    /**
+     * Prints the events taking place between the given dates, both included,
+     * ordered by their dates, then timeslots
+     * @param from the first date of the range, which should be a valid date
+     * @param to the last date of the range, which should be a valid date
+     * @param out the sink the report is written to
+     */
+    @Override
+    public void printRange(Date from, Date to, OutputSink out){
+        View[] views = snapshot();
+        if (count(views) == 0){
+            out.println(EventCalendar.EMPTY);
+            return;
+        }
+        EventCalendar.printEvents(out, EventCalendar.rangeHeader(from, to), inRange(views, from, to));
+    }
+
+    /**
+     * Checks if the given room is free at the given date and timeslot, and that
+     * the date is inside the booking window
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return true if the room can be booked then, false otherwise
+     */
+    @Override
+    public boolean isFree(Date date, Timeslot timeslot, Location location){
+        return queryAvailability(stripes[location.ordinal()],
+                window -> EventCalendar.isFree(window, date, timeslot, location));
+    }
+
+    /**
+     * Finds the earliest free bookings inside the booking window
+     * @param n the most bookings to find
+     * @param location the only location to look at, or null for every location
+     * @return the packed keys of the free bookings, in date order, then timeslot,
+     * then location
+     */
+    @Override
+    long[] findFree(int n, Location location){
+        if (location != null)
+            return findFreeIn(stripes[location.ordinal()], n);
+        long[][] found = new long[stripes.length][];
+        int total = 0;
+        for (Stripe s : stripes){
+            found[s.location.ordinal()] = findFreeIn(s, n);
+            total += found[s.location.ordinal()].length;
+        }
+        long[] merged = new long[Math.min(n, total)];
+        int[] at = new int[found.length];
+        for (int k = 0; k < merged.length; k++){
+            int min = -1;
+            for (int i = 0; i < found.length; i++)
+                if (at[i] < found[i].length && (min < 0 || found[i][at[i]] < found[min][at[min]]))
+                    min = i;
+            merged[k] = found[min][at[min]++];
+        }
+        return merged;
+    }
+
+    /**
+     * Finds the earliest free bookings of a single stripe's location
+     * @param s the stripe
+     * @param n the most bookings to find
+     * @return the packed keys of the free bookings, in order
+     */
+    private static long[] findFreeIn(Stripe s, int n){
+        return queryAvailability(s, window -> EventCalendar.findFree(window, n, s.location));
+    }
+
+    /**
+     * Runs a query over a stripe's availability bitmap. The query first runs
+     * under an optimistic read, and its answer is kept if no write got in the
+     * way; otherwise it runs again under the read lock. Only if the bitmap is
+     * out of date, because it was never built or the booking window has moved
+     * since, is the write lock taken to rebuild it.
+     * @param s the stripe
+     * @param query the query, which must not change the bitmap
+     * @param <T> the type of the answer
+     * @return the answer of the query
+     */
+    private static <T> T queryAvailability(Stripe s, Function<RoomAvailability, T> query){
+        long stamp = s.lock.tryOptimisticRead();
+        if (stamp != 0){
+            try{
+                RoomAvailability window = s.calendar.currentAvailability();
+                if (window != null){
+                    T answer = query.apply(window);
+                    if (s.lock.validate(stamp))
+                        return answer;
+                }
+            }catch (RuntimeException torn){ //a read overlapping a write may see anything
+            }
+        }
+        stamp = s.lock.readLock();
+        try{
+            RoomAvailability window = s.calendar.currentAvailability();
+            if (window != null)
+                return query.apply(window);
+        }finally{
+            s.lock.unlockRead(stamp);
+        }
+        stamp = s.lock.writeLock();
+        try{
+            return query.apply(s.calendar.availability());
+        }finally{
+            s.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Takes a consistent snapshot of every stripe. Each stripe whose kept view
+     * is out of date is copied under an optimistic read; once every stripe is
+     * done, the reads are validated together, so the copies are known to be the
+     * state of the whole calendar at a single moment. If a write gets in the way
+     * too many times, the stripes are locked for reading while copying.
+     * @return the view of each stripe, indexed by location ordinal
+     */
+    private View[] snapshot(){
+        View[] views = new View[stripes.length];
+        long[] stamps = new long[stripes.length];
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++){
+            if (copyOptimistically(views, stamps))
+                return publish(views);
+            Thread.onSpinWait();
+        }
+        for (Stripe s : stripes)
+            stamps[s.location.ordinal()] = s.lock.readLock();
+        try{
+            for (Stripe s : stripes)
+                views[s.location.ordinal()] = viewOf(s);
+        }finally{
+            for (int i = stripes.length - 1; i >= 0; i--)
+                stripes[i].lock.unlockRead(stamps[i]);
+        }
+        return publish(views);
+    }
+
+    /**
+     * Copies every stripe under optimistic reads, then validates them all
+     * @param views the view of each stripe, filled in
+     * @param stamps the stamp of the optimistic read of each stripe
+     * @return true if no stripe was written to while being copied, false otherwise
+     */
+    private boolean copyOptimistically(View[] views, long[] stamps){
+        for (Stripe s : stripes){
+            long stamp = s.lock.tryOptimisticRead();
+            if (stamp == 0)
+                return false;
+            stamps[s.location.ordinal()] = stamp;
+            try{
+                views[s.location.ordinal()] = viewOf(s);
+            }catch (RuntimeException torn){ //a copy overlapping a write may see anything
+                return false;
+            }
+        }
+        for (Stripe s : stripes)
+            if (!s.lock.validate(stamps[s.location.ordinal()]))
+                return false;
+        return true;
+    }
+
+    /**
+     * Copies a single stripe, or takes its kept view if it is still up to date
+     * @param s the stripe
+     * @return the view of the stripe
+     */
+    private static View viewOf(Stripe s){
+        long version = s.version;
+        View kept = s.view;
+        return kept != null && kept.version == version ? kept : new View(version, s.calendar);
+    }
+
+    /**
+     * Keeps the view of every stripe copied for later reports
+     * @param views the view of each stripe
+     * @return the view of each stripe
+     */
+    private View[] publish(View[] views){
+        for (int i = 0; i < views.length; i++)
+            if (stripes[i].view != views[i])
+                stripes[i].view = views[i];
+        return views;
+    }
+
+    /**
+     * Collects every event of a snapshot in the order they were added, merging the
+     * stripes by the sequence numbers the events were added with
+     * @param views the view of each stripe
+     * @return the events in the order they were added
+     */
+    private static Event[] inOrderAdded(View[] views){
+        Event[][] lists = new Event[views.length][];
+        long[][] order = new long[views.length][];
+        for (int i = 0; i < views.length; i++){
+            lists[i] = views[i].byAdded;
+            order[i] = views[i].sequence;
+        }
+        return merge(lists, order);
+    }
+
+    /**
+     * Collects the events of a snapshot whose contact is in the given department
+     * @param views the view of each stripe
+     * @param d the department
+     * @return the events of the department, in date order
+     */
+    private static Event[] ofDepartment(View[] views, Department d){
+        SortedRun[] runs = new SortedRun[views.length];
+        for (int i = 0; i < views.length; i++)
+            runs[i] = views[i].byDepartment[d.ordinal()];
+        return mergeByKey(runs);
+    }
+
+    /**
+     * Collects the events of a snapshot taking place between the given dates, both
+     * included, finding the range of each stripe by binary search
+     * @param views the view of each stripe
+     * @param from the first date of the range
+     * @param to the last date of the range
+     * @return the events in the range, in date order
+     */
+    private static Event[] inRange(View[] views, Date from, Date to){
+        if (from.compareTo(to) > 0)
+            return new Event[0];
+        long first = BookingKey.pack(from.toEpochDay(), 0, 0),
+                afterLast = BookingKey.pack(to.toEpochDay() + 1, 0, 0);
+        SortedRun[] runs = new SortedRun[views.length];
+        int[] start = new int[views.length], end = new int[views.length];
+        for (int i = 0; i < views.length; i++){
+            runs[i] = views[i].byKey;
+            start[i] = runs[i].indexOf(first);
+            end[i] = runs[i].indexOf(afterLast);
+        }
+        return mergeByKey(runs, start, end);
+    }
+
+    /**
+     * Encodes every event into a snapshot, in the order they were added
+     * @return a buffer holding the whole snapshot, ready to be written
+     */
+    private ByteBuffer encode(){
+        Event[] events = getEvents();
+        long[] keys = new long[events.length];
+        for (int i = 0; i < events.length; i++)
+            keys[i] = BookingKey.of(events[i]);
+        return CalendarSnapshot.encode(events, keys, events.length, events.length);
+    }
+
+    /**
+     * Prints the given events under the given header, or that the calendar is
+     * empty if there are none
+     * @param out the sink the report is written to
+     * @param header the header line of the report
+     * @param sorted the events in the order they should be printed
+     */
+    private static void printOrEmpty(OutputSink out, String header, Event[] sorted){
+        if (sorted.length == 0){
+            out.println(EventCalendar.EMPTY);
+            return;
+        }
+        EventCalendar.printEvents(out, header, sorted);
+    }
+
+    /**
+     * Merges whole runs of events into a single list in booking key order
+     * @param runs the runs of events
+     * @return the merged list
+     */
+    private static Event[] mergeByKey(SortedRun[] runs){
+        int[] start = new int[runs.length], end = new int[runs.length];
+        for (int i = 0; i < runs.length; i++)
+            end[i] = runs[i].size();
+        return mergeByKey(runs, start, end);
+    }
+
+    /**
+     * Merges part of each run of events into a single list in booking key order,
+     * comparing the keys the runs keep. There is only one run per location, so
+     * the smallest head is found by looking at every run.
+     * @param runs the runs of events
+     * @param start the position of the first event of each run to be merged,
+     * moved past the events as they are merged
+     * @param end the position just past the last event of each run to be merged
+     * @return the merged list
+     */
+    private static Event[] mergeByKey(SortedRun[] runs, int[] start, int[] end){
+        int total = 0;
+        for (int i = 0; i < runs.length; i++)
+            total += end[i] - start[i];
+        Event[] merged = new Event[total];
+        for (int k = 0; k < merged.length; k++){
+            int min = -1;
+            for (int i = 0; i < runs.length; i++)
+                if (start[i] < end[i] && (min < 0 || runs[i].keyAt(start[i]) < runs[min].keyAt(start[min])))
+                    min = i;
+            merged[k] = runs[min].eventAt(start[min]++);
+        }
+        return merged;
+    }
+
+    /**
+     * Merges lists of events, each sorted by the matching list of numbers, into a
+     * single list sorted by those numbers. There is only one list per location,
+     * so the smallest head is found by looking at every list.
+     * @param lists the lists of events
+     * @param order the number each event is sorted by, in lists matching the events
+     * @return the merged list
+     */
+    private static Event[] merge(Event[][] lists, long[][] order){
+        int total = 0;
+        for (Event[] events : lists)
+            total += events.length;
+        Event[] merged = new Event[total];
+        int[] at = new int[lists.length];
+        for (int k = 0; k < merged.length; k++){
+            int min = -1;
+            for (int i = 0; i < lists.length; i++)
+                if (at[i] < lists[i].length && (min < 0 || order[i][at[i]] < order[min][at[min]]))
+                    min = i;
+            merged[k] = lists[min][at[min]++];
+        }
+        return merged;
+    }
+
+    /**
+     * Counts the events in a snapshot
+     * @param views the view of each stripe
+     * @return the total number of events
+     */
+    private static int count(View[] views){
+        int count = 0;
+        for (View v : views)
+            count += v.byAdded.length;
+        return count;
+    }
+}
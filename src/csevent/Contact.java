@@ -1,23 +1,68 @@
 package csevent;
 
-import java.util.StringTokenizer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * A class made to handle the contacts for scheduling events.
+ * An immutable class made to handle the contacts for scheduling events. Since
+ * only a handful of department addresses ever come up, contacts made through
+ * of are interned: each department and email pair is validated once and the
+ * same contact is shared by every event that uses it.
  * @author Siddharth Sircar
  * @author Yash Shah
  * @since September 18, 2023
  */
 public class Contact {
+    /**
+     * The start of a contact as written in reports, up to its department
+     */
+    private static final String PREFIX = "[Contact: ";
+
+    /**
+     * What separates the department from the email
+     */
+    private static final String SEPARATOR = ", ";
+
+    /**
+     * The ASCII bytes of the start of a contact up to its email, for every
+     * department, indexed by the department's ordinal
+     */
+    private static final byte[][] LABELS = labels();
+
+    /**
+     * The domain every valid email ends with
+     */
+    private static final String DOMAIN = "rutgers.edu";
+
+    /**
+     * The most contacts kept in the pool for each department
+     */
+    private static final int MAX_POOLED = 1 << 10;
+
+    /**
+     * The interned contacts of each department, looked up by their emails
+     */
+    private static final Map<Department, Map<String, Contact>> POOL = pool();
+
     /**
      * This contact's department
      */
-    private Department department;
+    private final Department department;
 
     /**
      * This contact's email
      */
-    private String email;
+    private final String email;
+
+    /**
+     * Whether this contact is valid, worked out once when it is made
+     */
+    private final boolean valid;
 
     /**
      * Parametrized constructor for setting the contact's department and email
@@ -27,6 +72,7 @@ public class Contact {
     public Contact(Department department, String email){
         this.department = department;
         this.email = email;
+        valid = isEmailValid(department, email);
     }
 
     /**
@@ -34,44 +80,58 @@ public class Contact {
      */
     public Contact(){this(null, "");}
 
+    /**
+     * Finds the shared contact with the given department and email, making and
+     * validating it the first time it is asked for. Only valid contacts are shared.
+     * @param department the contact's department
+     * @param email the contact's email
+     * @return the contact with the department and email
+     */
+    public static Contact of(Department department, String email){
+        if (department == null || email == null)
+            return new Contact(department, email);
+        Map<String, Contact> contacts = POOL.get(department);
+        Contact c = contacts.get(email);
+        if (c != null)
+            return c;
+        c = new Contact(department, email);
+        if (!c.valid || contacts.size() >= MAX_POOLED) //invalid contacts are never stored
+            return c;
+        Contact pooled = contacts.putIfAbsent(email, c);
+        return pooled != null ? pooled : c;
+    }
+
     /**
      * Checks if this contact is valid.
      * @return  true if this contact is valid, false otherwise.
      */
-    public boolean isValid(){
-        if (!isEmailValid() || department == null)
-            return false;
-        for (Department d : Department.values())
-            if (d.equals(department))
-                return true;
-        return false;
-    }
+    public boolean isValid(){return valid;}
 
     /**
-     * A helper method created to check if the email is valid.
+     * A helper method created to check if an email is valid for a department, in
+     * a single pass over it. The part before the only '@' has to be the department's
+     * code in any case, and the part after it can only have letters, digits, and
+     * dots, ending with rutgers.edu.
+     * @param department the department the email belongs to
+     * @param email the email to be checked
      * @return true if the email is valid, false otherwise
      */
-    private boolean isEmailValid(){
-        if (email == null || email.isEmpty())
-            return false;
-        if (!email.contains("@") || !email.contains("."))
-            return false;
-        StringTokenizer st = new StringTokenizer(email, "@");
-        String localPart = st.nextToken(), domain = st.nextToken();
-        if (localPart.isEmpty() || domain.isEmpty())
+    private static boolean isEmailValid(Department department, String email){
+        if (department == null || email == null)
             return false;
-        if (!localPart.toLowerCase().equals(department.toString().toLowerCase()))
+        String code = department.name();
+        int at = code.length();
+        if (email.length() <= at + 1 || email.charAt(at) != '@')
             return false;
-        for (char c : localPart.toCharArray())
-            if (!Character.isAlphabetic(c) && !Character.isDigit(c)
-                    && c != '.' && c != '_' && c != '-')
+        for (int i = 0; i < email.length(); i++){
+            char c = email.charAt(i);
+            if (i < at){
+                if (Character.toLowerCase(c) != Character.toLowerCase(code.charAt(i)) || c > 'z')
+                    return false;
+            }else if (i > at && !Character.isAlphabetic(c) && !Character.isDigit(c) && c != '.')
                 return false;
-        for (char c : domain.toCharArray())
-            if (!Character.isAlphabetic(c) && !Character.isDigit(c) && c != '.')
-                return false;
-        if ((email.indexOf('@') != email.lastIndexOf('@')) || !email.endsWith("rutgers.edu"))
-            return false;
-        return true;
+        }
+        return email.endsWith(DOMAIN);
     }
 
     /**
@@ -80,26 +140,53 @@ public class Contact {
      */
     @Override
     public String toString(){
-        StringBuilder sb = new StringBuilder("[Contact: ");
-        switch (department){
-            case CS:
-                sb.append("Computer Science, ");
-                break;
-            case MATH:
-                sb.append("Mathematics, ");
-                break;
-            case EE:
-                sb.append("Electrical Engineering, ");
-                break;
-            case ITI:
-                sb.append("Information Technology and Informatics, ");
-                break;
-            case BAIT:
-                sb.append("Business Analytics and Information Technology, ");
-                break;
-        }
-        sb.append(email + "]");
-        return sb.toString();
+        return new String(encodeTo(ByteBuffer.allocate(encodedLength())).array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends this contact to the given output in the form
+     * [Contact: Department, email], without building a String first
+     * @param out the output this contact is appended to
+     * @return the given output
+     * @throws IOException if the output cannot be appended to
+     */
+    public Appendable appendTo(Appendable out) throws IOException {
+        return out.append(PREFIX).append(department.getFullName()).append(SEPARATOR)
+                .append(String.valueOf(email)).append(']');
+    }
+
+    /**
+     * Puts this contact into the given buffer in the form [Contact: Department, email],
+     * encoded as UTF-8
+     * @param buf the buffer this contact is put into
+     * @return the given buffer
+     * @throws java.nio.BufferOverflowException if the buffer has fewer than
+     * encodedLength() bytes left
+     */
+    public ByteBuffer encodeTo(ByteBuffer buf){
+        buf.put(LABELS[department.ordinal()]);
+        TextCodec.putUtf8(buf, String.valueOf(email));
+        return buf.put((byte) ']');
+    }
+
+    /**
+     * Counts the bytes encodeTo puts into a buffer for this contact
+     * @return the length of this contact in the form [Contact: Department, email]
+     */
+    public int encodedLength(){
+        return LABELS[department.ordinal()].length + TextCodec.utf8Length(String.valueOf(email)) + 1;
+    }
+
+    /**
+     * Builds the start of a contact up to its email for every department
+     * @return the ASCII bytes of each start, indexed by the department's ordinal
+     */
+    private static byte[][] labels(){
+        Department[] departments = Department.values();
+        byte[][] labels = new byte[departments.length][];
+        for (Department d : departments)
+            labels[d.ordinal()] = TextCodec.ascii(PREFIX + d.getFullName() + SEPARATOR);
+        return labels;
     }
 
     /**
@@ -109,10 +196,23 @@ public class Contact {
      */
     @Override
     public boolean equals(Object obj) {
-        if (obj == null || !(obj instanceof Contact))
+        if (this == obj)
+            return true;
+        if (!(obj instanceof Contact))
             return false;
         Contact c = (Contact) obj;
-        return department.equals(c.department) && email.equals(c.email);
+        return department == c.department && Objects.equals(email, c.email);
+    }
+
+    /**
+     * Creates a hash code for this contact that is consistent with equals
+     * @return a hash code built from the department and email of this contact
+     */
+    @Override
+    public int hashCode(){
+        final int PRIME = 31;
+        int result = department == null ? 0 : department.ordinal() + 1;
+        return PRIME * result + (email == null ? 0 : email.hashCode());
     }
 
     /**
@@ -128,14 +228,13 @@ public class Contact {
     public String getEmail(){return this.email;}
 
     /**
-     * Mutator method for setting the contact's department
-     * @param department the contact's department
+     * Builds an empty pool of contacts for every department
+     * @return the pool, with a map of contacts by email for each department
      */
-    public void setDepartment(Department department){this.department = department;}
-
-    /**
-     * Mutator method for setting contact's email address
-     * @param email the contact's email address
-     */
-    public void setEmail(String email) {this.email = email;}
+    private static Map<Department, Map<String, Contact>> pool(){
+        Map<Department, Map<String, Contact>> pool = new EnumMap<>(Department.class);
+        for (Department d : Department.values())
+            pool.put(d, new ConcurrentHashMap<>());
+        return pool;
+    }
 }
@@ -1,8 +1,12 @@
 package csevent;
-import java.util.Calendar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
- * A Date object class that implements the Comparable Interface
- * for the Event calendar to use.
+ * An immutable Date object class that implements the Comparable Interface
+ * for the Event calendar to use. Alongside its year, month, and day, a date
+ * keeps its epoch day, which is what it is checked against the booking clock with.
  *
  * @author Siddharth Sircar
  * @author Yash Shah
@@ -12,92 +16,82 @@ public class Date implements Comparable<Date>{
     /**
      * A field describing the year of the date
      */
-    private int year;
+    private final int year;
 
     /**
      * A field describing the day of the date
      */
-    private int day;
+    private final int day;
 
     /**
      * A field describing the month of the date
      */
-    private int month;
+    private final int month;
+
+    /**
+     * The number of days since January 1, 1970; only meaningful if the date is valid
+     */
+    private final long epochDay;
 
     /**
      * A constant defined to be the first month of the year
      */
-    private final int JANUARY = 1;
+    private static final int JANUARY = 1;
 
     /**
      * A constant defined to be the second month of the year
      */
-    private final int FEBRUARY = 2;
+    private static final int FEBRUARY = 2;
 
     /**
      * A constant defined to be the third month of the year
      */
-    private final int MARCH = 3;
+    private static final int MARCH = 3;
 
     /**
      * A constant defined to be the fourth month of the year
      */
-    private final int APRIL = 4;
+    private static final int APRIL = 4;
 
     /**
      * A constant defined to be the fifth month of the year
      */
-    private final int MAY = 5;
+    private static final int MAY = 5;
 
     /**
      * A constant defined to be the sixth month of the year
      */
-    private final int JUNE = 6;
+    private static final int JUNE = 6;
 
     /**
      * A constant defined to be the seventh month of the year
      */
-    private final int JULY = 7;
+    private static final int JULY = 7;
 
     /**
      * A constant defined to be the eighth month of the year
      */
-    private final int AUGUST = 8;
+    private static final int AUGUST = 8;
 
     /**
      * A constant defined to be the ninth month of the year
      */
-    private final int SEPTEMBER = 9;
+    private static final int SEPTEMBER = 9;
 
     /**
      * A constant defined to be the tenth month of the year
      */
-    private final int OCTOBER = 10;
+    private static final int OCTOBER = 10;
 
     /**
      * A constant defined to be the eleventh month of the year
      */
-    private final int NOVEMBER = 11;
+    private static final int NOVEMBER = 11;
 
     /**
      * A constant defined to be the last month of the year
      */
-    private final int DECEMBER = 12;
-
-    /**
-     * A constant defined to be this date's month
-     */
-    final int TODAY_MONTH;
-
-    /**
-     * A constant defined to be this date's day
-     */
-    final int TODAY_DAY;
-
-    /**
-     * A constant defined to be this date's year
-     */
-    final int TODAY_YEAR;
+    private static final int DECEMBER = 12;
 
     /**
      * Constructor for initializing a Date object.
@@ -109,17 +103,41 @@ public class Date implements Comparable<Date>{
         this.year = year;
         this.day = day;
         this.month = month;
-        Calendar c = Calendar.getInstance();
-        TODAY_MONTH = c.get(Calendar.MONTH) + 1; //Calendar's months are 0-based
-        TODAY_DAY = c.get(Calendar.DAY_OF_MONTH);
-        TODAY_YEAR = c.get(Calendar.YEAR);
+        this.epochDay = epochDayOf(month, day, year);
     }
 
     /**
-     * Creates a new date that represents today.
+     * Creates a new date that represents today, according to the booking clock.
      * @return today's date
      */
-    public Date today(){return new Date(TODAY_MONTH, TODAY_DAY, TODAY_YEAR);}
+    public static Date today(){return fromEpochDay(BookingClock.get().today());}
+
+    /**
+     * Parses a date written in the form MM/DD/YYYY, without going through any
+     * intermediate Strings.
+     * @param s the text of the date
+     * @return the date, which may still not be a valid calendar date
+     * @throws NumberFormatException if the text is not three numbers separated by slashes
+     */
+    public static Date parse(CharSequence s){
+        final int PARTS = 3, RADIX = 10, MAX_DIGITS = 9;
+        int[] parts = new int[PARTS];
+        int part = 0, digits = 0;
+        for (int i = 0; i < s.length(); i++){
+            char c = s.charAt(i);
+            if (c == '/' && digits > 0 && part < PARTS - 1){
+                part++;
+                digits = 0;
+            }else if (c >= '0' && c <= '9' && digits < MAX_DIGITS){
+                parts[part] = parts[part] * RADIX + (c - '0');
+                digits++;
+            }else
+                throw new NumberFormatException("Invalid date: " + s);
+        }
+        if (part != PARTS - 1 || digits == 0)
+            throw new NumberFormatException("Invalid date: " + s);
+        return new Date(parts[0], parts[1], parts[2]);
+    }
 
     /**
      * Compares this date to another given date.
@@ -159,6 +177,18 @@ public class Date implements Comparable<Date>{
         return year == d.year && month == d.month && day == d.day;
     }
 
+    /**
+     * Creates a hash code for this date that is consistent with equals
+     * @return a hash code built from the year, month, and day of this date
+     */
+    @Override
+    public int hashCode(){
+        final int PRIME = 31;
+        int result = year;
+        result = PRIME * result + month;
+        return PRIME * result + day;
+    }
+
     /**
      * Checks if this date is valid.
      * @return  true if this date is valid, false otherwise
@@ -186,6 +216,54 @@ public class Date implements Comparable<Date>{
         }
     }
 
+    /**
+     * Converts this date into the number of days since January 1, 1970. Only
+     * meaningful for valid dates.
+     * @return the epoch day of this date
+     */
+    public long toEpochDay(){return epochDay;}
+
+    /**
+     * Converts the given date into the number of days since January 1, 1970.
+     * Only meaningful for valid dates.
+     * @param month the month of the date
+     * @param day the day of the date
+     * @param year the year of the date
+     * @return the epoch day of the date
+     */
+    private static long epochDayOf(int month, int day, int year){
+        final int DAYS_PER_ERA = 146097, YEARS_PER_ERA = 400, DAYS_PER_YEAR = 365,
+                MARCH_BASED_SHIFT = 9, ERA_OFFSET = 719468;
+        //counts years from March so that leap days fall at the end of the year
+        long y = month <= FEBRUARY ? year - 1 : year;
+        long era = Math.floorDiv(y, YEARS_PER_ERA);
+        long yearOfEra = y - era * YEARS_PER_ERA;
+        int shiftedMonth = (month + MARCH_BASED_SHIFT) % DECEMBER;
+        long dayOfYear = (153 * shiftedMonth + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * DAYS_PER_YEAR + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - ERA_OFFSET;
+    }
+
+    /**
+     * Creates the date that is the given number of days since January 1, 1970
+     * @param epochDay the epoch day of the date
+     * @return the date with the given epoch day
+     */
+    public static Date fromEpochDay(long epochDay){
+        final int DAYS_PER_ERA = 146097, YEARS_PER_ERA = 400, DAYS_PER_YEAR = 365,
+                ERA_OFFSET = 719468, MARCH_BASED_SHIFT = 3, MONTHS = 12;
+        long z = epochDay + ERA_OFFSET;
+        long era = Math.floorDiv(z, DAYS_PER_ERA);
+        long dayOfEra = z - era * DAYS_PER_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / DAYS_PER_YEAR;
+        long dayOfYear = dayOfEra - (DAYS_PER_YEAR * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (int) ((5 * dayOfYear + 2) / 153);
+        int d = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int m = (shiftedMonth + MARCH_BASED_SHIFT - 1) % MONTHS + 1;
+        long y = yearOfEra + era * YEARS_PER_ERA + (m <= FEBRUARY ? 1 : 0);
+        return new Date(m, d, (int) y);
+    }
+
     /**
      * Checks if the year of this date is a leap year
      * @return true if the year is a leap year, false otherwise
@@ -210,17 +288,7 @@ public class Date implements Comparable<Date>{
     public boolean isInTheFuture(){
         if (!isValid())
             return false;
-        if (year == TODAY_YEAR){
-            if (month < TODAY_MONTH)
-                return false;
-            else if (month > TODAY_MONTH)
-                return true;
-            else
-                return day > TODAY_DAY;
-        }else if (year < TODAY_YEAR)
-            return false;
-        else
-            return true;
+        return epochDay > BookingClock.get().today();
     }
 
     /**
@@ -230,11 +298,7 @@ public class Date implements Comparable<Date>{
     public boolean isWithinSixMonthsOfToday(){
         if (!isInTheFuture())
             return false;
-        int isWithin6Months = 6;
-        Calendar future = Calendar.getInstance(), today = Calendar.getInstance();
-        future.set(year, month, day);
-        today.add(Calendar.MONTH, isWithin6Months);
-        return future.before(today) || future.equals(today);
+        return epochDay <= BookingClock.get().horizon();
     }
 
     /**
@@ -256,29 +320,55 @@ public class Date implements Comparable<Date>{
     public int getDay(){return this.day;}
 
     /**
-     * Mutator method for this class' private field year.
-     * @param  year the year to set this date to
+     * Creates a String representation of this date.
+     * @return a String representation of this date, in the form MM/DD/YYYY
      */
-    public void setYear(int year){this.year = year;}
+    @Override
+    public String toString(){
+        return new StringBuilder(encodedLength()).append(month).append('/')
+                .append(day).append('/').append(year).toString();
+    }
 
     /**
-     * Mutator method for this class' private field month.
-     * @param  month the month to set this date to
+     * Appends this date to the given output in the form MM/DD/YYYY, without
+     * building a String first
+     * @param out the output this date is appended to
+     * @return the given output
+     * @throws IOException if the output cannot be appended to
      */
-    public void setMonth(int month){this.month = month;}
+    public Appendable appendTo(Appendable out) throws IOException {
+        TextCodec.appendInt(out, month);
+        out.append('/');
+        TextCodec.appendInt(out, day);
+        out.append('/');
+        TextCodec.appendInt(out, year);
+        return out;
+    }
 
     /**
-     * Mutator method for this class' private field day.
-     * @param  day the day to set this date to
+     * Puts this date into the given buffer in the form MM/DD/YYYY, as ASCII
+     * @param buf the buffer this date is put into
+     * @return the given buffer
+     * @throws java.nio.BufferOverflowException if the buffer has fewer than
+     * encodedLength() bytes left
      */
-    public void setDay(int day){this.day = day;}
+    public ByteBuffer encodeTo(ByteBuffer buf){
+        TextCodec.putInt(buf, month);
+        buf.put((byte) '/');
+        TextCodec.putInt(buf, day);
+        buf.put((byte) '/');
+        TextCodec.putInt(buf, year);
+        return buf;
+    }
 
     /**
-     * Creates a String representation of this date.
-     * @return a String representation of this date, in the form MM/DD/YYYY
+     * Counts the bytes encodeTo puts into a buffer for this date
+     * @return the length of this date in the form MM/DD/YYYY
      */
-    @Override
-    public String toString(){return String.format("%d/%d/%d", month, day, year);}
+    public int encodedLength(){
+        final int SEPARATORS = 2;
+        return TextCodec.digits(month) + TextCodec.digits(day) + TextCodec.digits(year) + SEPARATORS;
+    }
 
     /**
      * A testbed main
@@ -288,6 +378,7 @@ public class Date implements Comparable<Date>{
         testValidity();
         testIsInFuture();
         testIsWithin6MonthsFromNow();
+        testFarFutureEpochDay();
     }
 
     /**
@@ -326,7 +417,7 @@ public class Date implements Comparable<Date>{
         System.out.println("Testing " + d);
         System.out.println(d.isValid() ? d + " is a valid date."
                 : d + " is NOT a valid date.");
-        d.setDay(day2);
+        d = new Date(d.getMonth(), day2, d.getYear());
         System.out.println("Testing " + d);
         System.out.println(d.isValid() ? d + " is a valid date."
                 : d + " is NOT a valid date.");
@@ -334,7 +425,7 @@ public class Date implements Comparable<Date>{
         System.out.println("Testing " + d);
         System.out.println(d.isValid() ? d + " is a valid date."
                 : d + " is NOT a valid date.");
-        d.setDay(day2);
+        d = new Date(d.getMonth(), day2, d.getYear());
         System.out.println("Testing " + d);
         System.out.println(d.isValid() ? d + " is a valid date."
                 : d + " is NOT a valid date.");
@@ -350,7 +441,7 @@ public class Date implements Comparable<Date>{
         System.out.println("Testing " + d);
         System.out.println(d.isInTheFuture() ? d + " is in the future."
                 : d + " is NOT in the future.");
-        d.setYear(year2);
+        d = new Date(d.getMonth(), d.getDay(), year2);
         System.out.println("Testing " + d);
         System.out.println(d.isInTheFuture() ? d + " is in the future."
                 : d + " is NOT in the future.");
@@ -370,9 +461,25 @@ public class Date implements Comparable<Date>{
         System.out.println("Testing " + d);
         System.out.println(d.isWithinSixMonthsOfToday() ? d + " is within 6 months of today."
                 : d + " is NOT within 6 months of today.");
-        d.setMonth(month2);
+        d = new Date(month2, d.getDay(), d.getYear());
         System.out.println("Testing " + d);
         System.out.println(d.isWithinSixMonthsOfToday() ? d + " is within 6 months of today."
                 : d + " is NOT within 6 months of today.");
     }
+
+    /**
+     * A helper method to see that a date far enough out that its epoch day does
+     * not fit in an int is neither within 6 months of today nor the same day as
+     * a date that is
+     */
+    private static void testFarFutureEpochDay(){
+        int farYear = 11761248, month1 = 1, month2 = 12, day1 = 15, day2 = 26, year = 2026;
+        Date far = new Date(month1, day1, farYear), near = new Date(month2, day2, year);
+        System.out.println("Testing whether a date far in the future wraps onto a near one");
+        System.out.println("Testing " + far);
+        System.out.println(far.isWithinSixMonthsOfToday() ? far + " is within 6 months of today."
+                : far + " is NOT within 6 months of today.");
+        System.out.println(far.toEpochDay() == near.toEpochDay() ? far + " is the same day as " + near + "."
+                : far + " is NOT the same day as " + near + ".");
+    }
 }
@@ -1,5 +1,7 @@
 package csevent;
 
+import java.nio.ByteBuffer;
+
 /**
  * A helper enum made to handle the main departments here at Rutgers
  * @author Siddharth Sircar
@@ -10,21 +12,59 @@ public enum Department {
     /**
      * Handles the Computer Science department
      */
-    CS,
+    CS("Computer Science"),
     /**
      * Handles the Electrical Engineering department
      */
-    EE,
+    EE("Electrical Engineering"),
     /**
      * Handles the Mathematics department
      */
-    MATH,
+    MATH("Mathematics"),
     /**
      * Handles the Information Technology and Informatics department
      */
-    ITI,
+    ITI("Information Technology and Informatics"),
     /**
      * Handles the Business Analytics and Information Technology department
      */
-    BAIT
+    BAIT("Business Analytics and Information Technology");
+
+    /**
+     * The full name of the department
+     */
+    private final String fullName;
+
+    /**
+     * The departments, looked up by their codes
+     */
+    private static final EnumLookup<Department> BY_CODE = new EnumLookup<>(values(), Department::name, true);
+
+    /**
+     * A mini constructor made to assign each department its full name
+     * @param fullName the department's full name
+     */
+    Department(String fullName){this.fullName = fullName;}
+
+    /**
+     * Accessor method for the full name of the department
+     * @return the department's full name
+     */
+    public String getFullName(){return fullName;}
+
+    /**
+     * Finds the department with the given code, ignoring case
+     * @param code the code to look up
+     * @return the department with the code, or null if none has it
+     */
+    public static Department fromCode(CharSequence code){return BY_CODE.get(code);}
+
+    /**
+     * Finds the department whose code is written in the given bytes of a buffer, ignoring case
+     * @param buf the buffer holding the code
+     * @param start the position of the first byte of the code
+     * @param end the position just past the last byte of the code
+     * @return the department with the code, or null if none has it
+     */
+    static Department fromCode(ByteBuffer buf, int start, int end){return BY_CODE.get(buf, start, end);}
 }
@@ -0,0 +1,86 @@
+package csevent;
+
+import java.util.function.Function;
+
+/**
+ * A secondary index of the event calendar that buckets events by one of their
+ * enum attributes, such as their location or department. The buckets are kept
+ * in an array indexed by ordinal, and each is a sorted run of primitive booking
+ * keys, so a bucket is always in date order and can be read without any sorting.
+ * @param <K> the enum the events are bucketed by
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class EnumIndex<K extends Enum<K>> {
+    /**
+     * The bucket of events for each constant of the enum, indexed by ordinal
+     */
+    private final SortedRun[] buckets;
+
+    /**
+     * Finds the constant an event is bucketed under
+     */
+    private final Function<Event, K> attribute;
+
+    /**
+     * Constructor for an index with an empty bucket for every constant of the enum
+     * @param type the class of the enum the events are bucketed by
+     * @param attribute finds the constant an event is bucketed under
+     */
+    EnumIndex(Class<K> type, Function<Event, K> attribute){
+        this.attribute = attribute;
+        buckets = new SortedRun[type.getEnumConstants().length];
+        for (int i = 0; i < buckets.length; i++)
+            buckets[i] = new SortedRun();
+    }
+
+    /**
+     * Adds the given event to its bucket
+     * @param key the packed booking key of the event
+     * @param e the event to be added
+     */
+    void add(long key, Event e){buckets[attribute.apply(e).ordinal()].add(key, e);}
+
+    /**
+     * Adds a batch of events given in booking key order. Each
+     * event is appended to its bucket in turn, which keeps every bucket in date
+     * order without comparing any events.
+     * @param keys the packed booking keys of the events, in ascending order
+     * @param events the events, matching the keys
+     * @param n the number of events in the arrays to add
+     */
+    void addAll(long[] keys, Event[] events, int n){
+        for (int i = 0; i < n; i++)
+            add(keys[i], events[i]);
+    }
+
+    /**
+     * Removes the given event from its bucket
+     * @param key the packed booking key of the event
+     * @param e the event to be removed
+     */
+    void remove(long key, Event e){buckets[attribute.apply(e).ordinal()].remove(key);}
+
+    /**
+     * Accessor method for the events in the bucket of the given constant
+     * @param k the constant
+     * @return the bucket, in date order, which must not be changed
+     */
+    SortedRun get(K k){return buckets[k.ordinal()];}
+
+    /**
+     * Accessor method for the number of events in the bucket of the given constant
+     * @param k the constant
+     * @return the number of events in the bucket
+     */
+    int count(K k){return buckets[k.ordinal()].size();}
+
+    /**
+     * Shrinks every bucket down to the number of events it holds
+     */
+    void trimToSize(){
+        for (SortedRun bucket : buckets)
+            bucket.trimToSize();
+    }
+}
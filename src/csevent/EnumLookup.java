@@ -0,0 +1,203 @@
+package csevent;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * A lookup table from ASCII names to the constants of an enum, built once as a
+ * perfect hash: the multiplier of the hash is picked so that no two names land
+ * in the same slot. Finding a constant hashes the token once and compares it
+ * against the single name in its slot, so it takes time in the length of the
+ * token and makes no Strings, whether the token is text or bytes in a buffer.
+ * @param <E> the enum the names belong to
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class EnumLookup<E extends Enum<E>> {
+    /**
+     * The largest table tried before giving up on finding a perfect hash
+     */
+    private static final int MAX_TABLE_SIZE = 1 << 16;
+
+    /**
+     * The most multipliers tried for each table size
+     */
+    private static final int MAX_TRIES = 1 << 10;
+
+    /**
+     * The highest character an ASCII name can have
+     */
+    private static final int MAX_ASCII = 0x7F;
+
+    /**
+     * Whether letters match regardless of case
+     */
+    private final boolean ignoreCase;
+
+    /**
+     * The multiplier of the hash, picked so that every name has its own slot
+     */
+    private final int multiplier;
+
+    /**
+     * The mask that turns a hash into a slot
+     */
+    private final int mask;
+
+    /**
+     * The constant in each slot, or null if the slot is empty
+     */
+    private final E[] constants;
+
+    /**
+     * The name of the constant in each slot, as ASCII bytes, or null if the slot is empty
+     */
+    private final byte[][] names;
+
+    /**
+     * Constructor for a table of the given constants of an enum
+     * @param values every constant of the enum, indexed by ordinal
+     * @param name the function giving the name each constant is looked up by
+     * @param ignoreCase whether letters should match regardless of case
+     * @throws IllegalArgumentException if two constants have the same name, or a
+     * name is not ASCII
+     */
+    EnumLookup(E[] values, Function<E, String> name, boolean ignoreCase){
+        this.ignoreCase = ignoreCase;
+        byte[][] keys = new byte[values.length][];
+        for (E e : values)
+            keys[e.ordinal()] = ascii(name.apply(e));
+        int size = Integer.highestOneBit(Math.max(1, values.length)) * 2, m;
+        while ((m = findMultiplier(keys, size - 1)) == 0){
+            size *= 2;
+            if (size > MAX_TABLE_SIZE)
+                throw new IllegalArgumentException("No perfect hash for the names of " + values[0].getDeclaringClass().getSimpleName());
+        }
+        multiplier = m;
+        mask = size - 1;
+        int[] slots = place(keys, m, mask);
+        constants = Arrays.copyOf(values, size);
+        Arrays.fill(constants, null);
+        names = new byte[size][];
+        for (E e : values){
+            constants[slots[e.ordinal()]] = e;
+            names[slots[e.ordinal()]] = keys[e.ordinal()];
+        }
+    }
+
+    /**
+     * Finds the constant with the given name
+     * @param s the name to look up
+     * @return the constant with the name, or null if none has it
+     */
+    E get(CharSequence s){
+        if (s == null)
+            return null;
+        int h = 0, length = s.length();
+        for (int i = 0; i < length; i++){
+            char c = s.charAt(i);
+            if (c > MAX_ASCII)
+                return null;
+            h = h * multiplier + fold(c);
+        }
+        int slot = slot(h, mask);
+        byte[] name = names[slot];
+        if (name == null || name.length != length)
+            return null;
+        for (int i = 0; i < length; i++)
+            if (fold(s.charAt(i)) != fold(name[i]))
+                return null;
+        return constants[slot];
+    }
+
+    /**
+     * Finds the constant whose name is written in the given bytes of a buffer
+     * @param buf the buffer holding the name
+     * @param start the position of the first byte of the name
+     * @param end the position just past the last byte of the name
+     * @return the constant with the name, or null if none has it
+     */
+    E get(ByteBuffer buf, int start, int end){
+        int h = 0;
+        for (int i = start; i < end; i++){
+            byte b = buf.get(i);
+            if (b < 0)
+                return null;
+            h = h * multiplier + fold(b);
+        }
+        int slot = slot(h, mask);
+        byte[] name = names[slot];
+        if (name == null || name.length != end - start)
+            return null;
+        for (int i = start; i < end; i++)
+            if (fold(buf.get(i)) != fold(name[i - start]))
+                return null;
+        return constants[slot];
+    }
+
+    /**
+     * Folds a character to lower case if letters match regardless of case
+     * @param c the ASCII character
+     * @return the character to hash and compare
+     */
+    private int fold(int c){return ignoreCase && c >= 'A' && c <= 'Z' ? c | 0x20 : c;}
+
+    /**
+     * Looks for a multiplier that gives every name its own slot
+     * @param keys the names, indexed by ordinal
+     * @param mask the mask that turns a hash into a slot
+     * @return the multiplier, which is always odd, or 0 if none of those tried work
+     */
+    private int findMultiplier(byte[][] keys, int mask){
+        for (int tries = 0, m = 1; tries < MAX_TRIES; tries++, m += 2)
+            if (place(keys, m, mask) != null)
+                return m;
+        return 0;
+    }
+
+    /**
+     * Finds a slot for every name with the given multiplier
+     * @param keys the names, indexed by ordinal
+     * @param m the multiplier of the hash
+     * @param mask the mask that turns a hash into a slot
+     * @return the slot of each name, or null if two names land in the same one
+     */
+    private int[] place(byte[][] keys, int m, int mask){
+        int[] slots = new int[keys.length];
+        boolean[] used = new boolean[mask + 1];
+        for (int k = 0; k < keys.length; k++){
+            int h = 0;
+            for (byte b : keys[k])
+                h = h * m + fold(b);
+            int slot = slot(h, mask);
+            if (used[slot])
+                return null;
+            used[slot] = true;
+            slots[k] = slot;
+        }
+        return slots;
+    }
+
+    /**
+     * Turns a hash into a slot, mixing its high bits into the low ones first
+     * @param h the hash
+     * @param mask the mask that turns a hash into a slot
+     * @return the slot
+     */
+    private static int slot(int h, int mask){return (h ^ (h >>> 16)) & mask;}
+
+    /**
+     * Finds the bytes of a name made of ASCII characters only
+     * @param name the name
+     * @return the ASCII bytes of the name
+     * @throws IllegalArgumentException if the name is not ASCII
+     */
+    private static byte[] ascii(String name){
+        for (int i = 0; i < name.length(); i++)
+            if (name.charAt(i) > MAX_ASCII)
+                throw new IllegalArgumentException("Not an ASCII name: " + name);
+        return TextCodec.ascii(name);
+    }
+}
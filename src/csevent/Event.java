@@ -1,5 +1,8 @@
 package csevent;
-import java.util.StringTokenizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * An Event object class that implements the Comparable Interface
@@ -10,6 +13,45 @@ import java.util.StringTokenizer;
  * @since September 18, 2023
  */
 public class Event implements Comparable<Event>{
+    /**
+     * The start of an event as written in reports, up to its date
+     */
+    private static final String DATE_PREFIX = "[Event Date: ";
+
+    /**
+     * What comes between the date and the starting time
+     */
+    private static final String START_PREFIX = "] [Start: ";
+
+    /**
+     * What comes between the starting time and the ending time
+     */
+    private static final String END_PREFIX = "] [";
+
+    /**
+     * What comes between the ending time and the location
+     */
+    private static final String LOCATION_PREFIX = "]  @";
+
+    /**
+     * The ASCII bytes of the start of an event, up to its date
+     */
+    private static final byte[] DATE_PREFIX_BYTES = TextCodec.ascii(DATE_PREFIX);
+
+    /**
+     * The ASCII bytes of what comes between the date and the starting time
+     */
+    private static final byte[] START_PREFIX_BYTES = TextCodec.ascii(START_PREFIX);
+
+    /**
+     * The ASCII bytes of what comes between the starting time and the ending time
+     */
+    private static final byte[] END_PREFIX_BYTES = TextCodec.ascii(END_PREFIX);
+
+    /**
+     * The ASCII bytes of what comes between the ending time and the location
+     */
+    private static final byte[] LOCATION_PREFIX_BYTES = TextCodec.ascii(LOCATION_PREFIX);
 
     /**
      * The duration of the event
@@ -36,6 +78,12 @@ public class Event implements Comparable<Event>{
      */
     private Contact contact;
 
+    /**
+     * The String representation of this event, or null if it has not been built
+     * since the event was last changed
+     */
+    private String rendered;
+
     /**
      * Parametrized constructor for initializing an Event object
      * @param  date the date for which the event should take place
@@ -88,80 +136,63 @@ public class Event implements Comparable<Event>{
     public static int compare(Event e1, Event e2){return e1.compareTo(e2);}
 
     /**
-     * Returns a String representation of this event.
+     * Returns a String representation of this event. The line is built once and
+     * kept until one of the setters changes the event.
      * @return  a String representation of this event.
      */
     @Override
     public String toString(){
-        StringBuilder sb = new StringBuilder("[");
-        sb.append("Event Date: " + date.toString());
-        String ending = "";
-        switch (startTime){
-            case MORNING:
-                sb.append("] [Start: 10:30am] [");
-                ending = newTime("10:30am", duration);
-                break;
-            case AFTERNOON:
-                sb.append("] [Start: 02:30pm] [");
-                ending = newTime("2:30pm", duration);
-                break;
-            case EVENING:
-                sb.append("] [Start: 06:30pm] [");
-                ending = newTime("6:30pm", duration);
-                break;
-        }
-        sb.append(ending + "] ");
-        sb.append(locationString() + contact.toString());
-        return sb.toString();
+        if (rendered == null)
+            rendered = new String(encodeTo(ByteBuffer.allocate(encodedLength())).array(),
+                    StandardCharsets.UTF_8);
+        return rendered;
+    }
+
+    /**
+     * Appends this event to the given output the same way toString writes it,
+     * without building a String first
+     * @param out the output this event is appended to
+     * @return the given output
+     * @throws IOException if the output cannot be appended to
+     */
+    public Appendable appendTo(Appendable out) throws IOException {
+        if (rendered != null)
+            return out.append(rendered);
+        out.append(DATE_PREFIX);
+        date.appendTo(out);
+        out.append(START_PREFIX).append(startTime.getStartTime()).append(END_PREFIX)
+                .append(startTime.getEndTime(duration)).append(LOCATION_PREFIX);
+        location.appendTo(out);
+        out.append(' ');
+        return contact.appendTo(out);
     }
 
     /**
-     * Creates a String based off the location for this event to make event string
-     * representation
-     * @return a String based off the location for this event
-     */
-    private String locationString(){
-        switch (location){
-            case ACADEMIC_BUILDING:
-                return " @AB2225 (Academic Building, College Avenue) ";
-            case HILL_CENTER:
-                return " @HLL114 (Hill Center, Busch) ";
-            case ALLISON_ROAD_CLASSROOM:
-                return " @ARC103 (Allison Road Classroom, Busch) ";
-            case MURRAY_HALL:
-                return " @MU302 (Murray Hall, College Avenue) ";
-            case BECK_HALL:
-                return " @BE_AUD (Beck Hall, Livingston) ";
-            default:
-                return " @TIL232 (Tillett Hall, Livingston) ";
-        }
+     * Puts this event into the given buffer the same way toString writes it,
+     * encoded as UTF-8
+     * @param buf the buffer this event is put into
+     * @return the given buffer
+     * @throws java.nio.BufferOverflowException if the buffer has fewer than
+     * encodedLength() bytes left
+     */
+    public ByteBuffer encodeTo(ByteBuffer buf){
+        buf.put(DATE_PREFIX_BYTES);
+        date.encodeTo(buf);
+        buf.put(START_PREFIX_BYTES).put(startTime.getStartBytes()).put(END_PREFIX_BYTES)
+                .put(startTime.getEndBytes(duration)).put(LOCATION_PREFIX_BYTES);
+        location.encodeTo(buf).put((byte) ' ');
+        return contact.encodeTo(buf);
     }
 
     /**
-     * Calculates the new time given the start time and the number
-     * of minutes after it
-     * @param time the starting time in hh:mmam/hh:mmpm format
-     * @param duration the minutes after the starting time
-     * @return the new time that is the given minutes after the start,
-     * also written in hh:mmam/hh:mmpm format
-     */
-    private String newTime(String time, int duration){
-        final int minutesInHour = 60, hoursInDay = 12;
-        StringTokenizer st = new StringTokenizer(time, ":");
-        int hours = Integer.parseInt(st.nextToken());
-        char[] arr = st.nextToken().toCharArray();
-        //the ints will be in the first and second indices of the array
-        String s = "" + arr[0] + arr[1];
-        int minutes = Integer.parseInt(s);
-        //the am/pm parts will be the remaining array
-        String ampm = "" + arr[2] + arr[3];
-        int totalMinutes = (hours * minutesInHour) + minutes + duration;
-        int hoursAfterMinutes = totalMinutes / minutesInHour,
-                minutesAfterMinutes = totalMinutes % minutesInHour;
-        System.out.println(hoursAfterMinutes);
-        if (hoursAfterMinutes >= hoursInDay)
-            ampm = ampm.toLowerCase().equals("am") ? "pm" : "am";
-        return String.format("%02d:%02d%s", hoursAfterMinutes, minutesAfterMinutes, ampm);
+     * Counts the bytes encodeTo puts into a buffer for this event
+     * @return the length of this event as written in reports
+     */
+    public int encodedLength(){
+        return DATE_PREFIX_BYTES.length + date.encodedLength() + START_PREFIX_BYTES.length
+                + startTime.getStartBytes().length + END_PREFIX_BYTES.length
+                + startTime.getEndBytes(duration).length + LOCATION_PREFIX_BYTES.length
+                + location.encodedLength() + 1 + contact.encodedLength();
     }
 
     /**
@@ -183,35 +214,63 @@ public class Event implements Comparable<Event>{
             return false;
     }
 
+    /**
+     * Creates a hash code for this event that is consistent with equals, so
+     * only the date, location, and timeslot of the event are considered
+     * @return a hash code built from the booking identity of this event
+     */
+    @Override
+    public int hashCode(){
+        final int PRIME = 31;
+        int result = date == null ? 0 : date.hashCode();
+        result = PRIME * result + (location == null ? 0 : location.ordinal() + 1);
+        return PRIME * result + (startTime == null ? 0 : startTime.ordinal() + 1);
+    }
+
     /**
      * Mutator method for setting this event's date
      * @param date the event date
      */
-    public void setDate(Date date){this.date = date;}
+    public void setDate(Date date){
+        this.date = date;
+        rendered = null;
+    }
 
     /**
      * Mutator method for setting the event's duration
      * @param duration the event's duration
      */
-    public void setDuration(int duration){this.duration = duration;}
+    public void setDuration(int duration){
+        this.duration = duration;
+        rendered = null;
+    }
 
     /**
      * Mutator method for setting the event's starting time
      * @param startTime the event's starting time
      */
-    public void setStartTime(Timeslot startTime){this.startTime = startTime;}
+    public void setStartTime(Timeslot startTime){
+        this.startTime = startTime;
+        rendered = null;
+    }
 
     /**
      * Mutator method for setting the event's location
      * @param location the event's location
      */
-    public void setLocation(Location location){this.location = location;}
+    public void setLocation(Location location){
+        this.location = location;
+        rendered = null;
+    }
 
     /**
      * Mutator method for setting the event's contact
      * @param contact the event's contact
      */
-    public void setContact(Contact contact){this.contact = contact;}
+    public void setContact(Contact contact){
+        this.contact = contact;
+        rendered = null;
+    }
 
     /**
      * Accessor method for getting the event's date
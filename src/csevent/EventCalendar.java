@@ -1,106 +1,308 @@
 package csevent;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
 /**
- * A class made to handle scheduling, removing, and printing events
+ * A class made to handle scheduling, removing, and printing events. The events
+ * are partitioned by the month they take place in, each partition indexed and
+ * sorted on its own, so a booking only touches the small partition of its month
+ * and months no longer needed can be dropped whole.
  * @author Siddharth Sircar
  * @author Yash Shah
  * @since September 18, 2023
  */
-public class EventCalendar {
+public class EventCalendar extends BookingCalendar {
+
+    /**
+     * The partitions holding the events of each month in use, in month order
+     */
+    private MonthPartition[] partitions;
 
     /**
-     * The list of events
+     * The number of partitions in use
      */
-    private Event[] events;
+    private int partitionCount;
 
     /**
-     * The number of events currently registered in the list, right now set to 0
+     * The number of events currently registered in the calendar, right now set to 0
      */
     private int numEvents;
 
+    /**
+     * The sequence number given to the next event added, which keeps the order
+     * events were added in across partitions
+     */
+    private long nextSequence;
+
+    /**
+     * The number of events the calendar is expected to hold, a share of which
+     * each new partition is presized for
+     */
+    private int expectedSize;
+
+    /**
+     * The bitmap of booked rooms over the booking window, built on first use
+     * and rebuilt whenever the window moves to a new day
+     */
+    private RoomAvailability availability;
+
+    /**
+     * The sink the reports of the calendar are written to
+     */
+    private OutputSink out;
+
+    /**
+     * The locations ordered by campus and then by building
+     */
+    static final Location[] CAMPUS_ORDER = Location.inCampusOrder();
+
+    /**
+     * The line printed instead of a report when the calendar has no events
+     */
+    static final String EMPTY = "Event calendar is empty!";
+
+    /**
+     * The first line of the report of events in the order they were added
+     */
+    static final String HEADER = "* Event calendar *";
+
+    /**
+     * The first line of the report of events ordered by campus and building
+     */
+    static final String CAMPUS_HEADER = "* Event calendar by campus and building *";
+
+    /**
+     * The first line of the report of events ordered by department
+     */
+    static final String DEPARTMENT_HEADER = "* Event calendar by department *";
+
+    /**
+     * The first line of the report of events ordered by date and timeslot
+     */
+    static final String DATE_HEADER = "* Event calendar by event date and start time *";
+
+    /**
+     * The last line of every report of events
+     */
+    static final String FOOTER = "* end of event calendar *";
+
     /**
      * The number of events the list can hold, subject to change when list
      * gets full
      */
-    private int INITIAL_CAPACITY = 4;
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * The number of months the booking window reaches into, counting the
+     * current one, over which the expected events are assumed to be spread
+     */
+    private static final int BOOKING_MONTHS = 7;
 
     /**
      * A default constructor used for initializing the list
      */
-    public EventCalendar(){
+    public EventCalendar(){this(INITIAL_CAPACITY);}
+
+    /**
+     * Constructor for initializing a calendar presized to hold the given number
+     * of events, spread over the months of the booking window
+     * @param expectedSize the number of events the calendar is expected to hold
+     */
+    public EventCalendar(int expectedSize){
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
         numEvents = 0;
-        events = new Event[INITIAL_CAPACITY];
+        partitions = new MonthPartition[BOOKING_MONTHS];
+        this.expectedSize = expectedSize;
+        out = OutputSink.console();
     }
 
     /**
-     * Checks if given event is part of the list.
-     * @param  e  the Event to be seen if it is part of the list.
-     * @return true if the event is part of the list, false otherwise.
+     * Mutator method for the sink the reports of the calendar are written to.
+     * The calendar never flushes the sink; whoever owns it does.
+     * @param out the sink the reports should be written to
      */
-    public boolean contains(Event e){
-        if (isEmpty())
-            return false;
-        for (int i = 0; i < numEvents; i++)
-            if (e.equals(events[i]))
-                return true;
-        return false;
-    }
+    public void setOutput(OutputSink out){this.out = out;}
 
     /**
-     * Searches for given event in the list
-     * @param  e  the Event to be searched for in the list.
-     * @return  the index in the list where the event exists, -1 if the event is not in the list.
+     * Accessor method for the sink the reports of the calendar are written to
+     * @return the sink the reports are written to
      */
-    private int find(Event e){
-        final int NOT_FOUND = -1;
-        for (int i = 0; i < numEvents; i++)
-            if (e.equals(events[i]))
-                return i;
-        return NOT_FOUND;
+    public OutputSink getOutput(){return out;}
+
+    /**
+     * Checks if an event is booked at the given date, timeslot, and location,
+     * without needing an Event to be made for the lookup.
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return true if such an event is part of the list, false otherwise.
+     */
+    @Override
+    public boolean contains(Date date, Timeslot timeslot, Location location){
+        if (isEmpty() || !date.isValid())
+            return false;
+        MonthPartition p = partition(MonthPartition.monthOf(date));
+        return p != null && p.contains(BookingKey.of(date, timeslot, location));
     }
 
     /**
-     * Attempts to remove the given event from the list, assuming it's there
-     * @param e the event to be removed
+     * Attempts to remove the event booked at the given date, timeslot, and location,
+     * without needing an Event to be made for the lookup.
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
      * @return true if the event was successfully removed, false otherwise
      */
-    public boolean remove(Event e){
-        if (!contains(e))
+    @Override
+    public boolean remove(Date date, Timeslot timeslot, Location location){
+        if (isEmpty() || !date.isValid())
             return false;
-        Event[] copy = events;
-        int indexOfE = find(e);
-        for (int i = 0, k = 0; i < numEvents; i++)
-            if (i != indexOfE){
-                copy[k] = events[k];
-                k++;
-            }
-        events = copy;
+        MonthPartition p = partition(MonthPartition.monthOf(date));
+        long key = BookingKey.of(date, timeslot, location);
+        if (p == null || p.remove(key) == null)
+            return false;
+        if (availability != null)
+            availability.release(key);
         numEvents--;
         return true;
     }
 
     /**
-     * This method makes the events grow by 4 indices; only to be implemented whenever
-     * events gets full.
+     * Attempts to remove the event booked at the given date, timeslot, and
+     * location, recording it in the given journal first
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @param journal the journal the removal is recorded in
+     * @return true if the event was successfully removed, false otherwise
      */
-    private void grow(){
-        Event[] copy = new Event[events.length + INITIAL_CAPACITY];
-        for (int i = 0; i < numEvents; i++)
-            copy[i] = events[i];
-        events = copy;
+    @Override
+    boolean remove(Date date, Timeslot timeslot, Location location, CommandJournal journal){
+        if (!contains(date, timeslot, location))
+            return false;
+        journal.logRemove(date, timeslot, location);
+        return remove(date, timeslot, location);
     }
 
     /**
-     * Checks if this list of events is full.
-     * @return  true if this list of events is full, false otherwise.
+     * Drops every event taking place in a month before that of the given date.
+     * Whole partitions are let go of without looking at their events, so each
+     * month dropped costs the same however many events it held.
+     * @param date a date in the first month to be kept
+     * @return the number of events dropped
      */
-    private boolean isFull(){
-        if (isEmpty())
-            return false;
-        for (int i = 0; i < events.length; i++)
-            if (events[i] == null)
-                return false;
-        return true;
+    @Override
+    public int dropMonthsBefore(Date date){
+        int dropped = ceiling(MonthPartition.monthOf(date)), events = 0;
+        for (int i = 0; i < dropped; i++){
+            events += partitions[i].getCount();
+            if (availability != null && partitions[i].reaches(BookingKey.pack(availability.getFirstDay(), 0, 0)))
+                availability = null; //rebuilt without the dropped events on next use
+        }
+        System.arraycopy(partitions, dropped, partitions, 0, partitionCount - dropped);
+        Arrays.fill(partitions, partitionCount - dropped, partitionCount, null);
+        partitionCount -= dropped;
+        numEvents -= events;
+        return events;
+    }
+
+    /**
+     * Finds the first partition of a month at or after the given one
+     * @param month the month, counted in months since year 0
+     * @return the position of that partition, or the number of partitions if there is none
+     */
+    private int ceiling(long month){
+        int low = 0, high = partitionCount;
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (partitions[mid].getMonth() < month)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Finds the partition of the given month
+     * @param month the month, counted in months since year 0
+     * @return the partition, or null if no event of the month was ever added
+     */
+    private MonthPartition partition(long month){
+        int i = ceiling(month);
+        return i < partitionCount && partitions[i].getMonth() == month ? partitions[i] : null;
+    }
+
+    /**
+     * Finds the partition of the given month, making an empty one if there is none
+     * @param month the month, counted in months since year 0
+     * @return the partition
+     */
+    private MonthPartition partitionFor(long month){
+        int i = ceiling(month);
+        if (i < partitionCount && partitions[i].getMonth() == month)
+            return partitions[i];
+        if (partitionCount == partitions.length)
+            partitions = Arrays.copyOf(partitions, partitionCount * 2);
+        System.arraycopy(partitions, i, partitions, i + 1, partitionCount - i);
+        partitionCount++;
+        return partitions[i] = new MonthPartition(month, expectedSize / BOOKING_MONTHS);
+    }
+
+    /**
+     * Makes sure the partitions of the given events can hold all of them without
+     * having to grow again, making any partition that is missing
+     * @param batch the events about to be added
+     * @param n the number of events in the array about to be added
+     */
+    private void presize(Event[] batch, int n){
+        for (int i = 0; i < n; i++)
+            if (batch[i].getDate().isValid())
+                partitionFor(MonthPartition.monthOf(batch[i].getDate()));
+        int[] incoming = new int[partitionCount];
+        for (int i = 0; i < n; i++)
+            if (batch[i].getDate().isValid())
+                incoming[ceiling(MonthPartition.monthOf(batch[i].getDate()))]++;
+        for (int i = 0; i < partitionCount; i++)
+            if (incoming[i] > 0)
+                partitions[i].ensureCapacity(partitions[i].getCount() + incoming[i]);
+    }
+
+    /**
+     * Makes sure the calendar can hold at least the given number of events without
+     * having to grow again, as long as they are spread over the months of the
+     * booking window. Use addAll to presize for a batch of events exactly.
+     * @param minCapacity the number of events the list should be able to hold
+     */
+    @Override
+    public void ensureCapacity(int minCapacity){
+        expectedSize = Math.max(expectedSize, minCapacity);
+        for (int i = 0; i < partitionCount; i++)
+            partitions[i].ensureCapacity(minCapacity / BOOKING_MONTHS);
+    }
+
+    /**
+     * Shrinks every partition down to the number of events it holds, dropping
+     * any holes left behind by removed events and any month left empty.
+     */
+    @Override
+    public void trimToSize(){
+        int k = 0;
+        for (int i = 0; i < partitionCount; i++)
+            if (partitions[i].getCount() > 0){
+                partitions[i].trimToSize();
+                partitions[k++] = partitions[i];
+            }
+        Arrays.fill(partitions, k, partitionCount, null);
+        partitionCount = k;
+        expectedSize = numEvents;
     }
 
     /**
@@ -111,130 +313,609 @@ public class EventCalendar {
 
     /**
      * Attempts to add given event to the list; will not if event is already in
-     * the list. If the list becomes full after the addition, the list grows.
+     * the list or its date is not a valid calendar date. The event only goes
+     * into the partition of its month, which grows geometrically when full.
      * @param  e the event to be added to the list
      * @return  true if adding the event was successful, false otherwise.
      */
+    @Override
     public boolean add(Event e){
-        if (contains(e))
+        if (!add(e, nextSequence))
             return false;
-        else{
-            for (int i = 0; i < events.length; i++)
-                if (events[i] == null){
-                    events[i] = e;
-                    break;
-                }
-            numEvents++;
-            if (isFull())
-                grow();
-            return true;
-        }
+        nextSequence++;
+        return true;
     }
 
     /**
-     * Takes two events and swap their values
-     * @param e1 the first event to be swapped value
-     * @param e2 the second event to be swapped value
+     * Attempts to add given event to the list, recording it in the given journal first
+     * @param e the event to be added to the list
+     * @param journal the journal the event is recorded in
+     * @return true if adding the event was successful, false otherwise.
      */
-    private void swap(Event e1, Event e2){
-        Event temp = e1;
-        e1 = e2;
-        e2 = temp;
+    @Override
+    boolean add(Event e, CommandJournal journal){
+        if (!e.getDate().isValid() || contains(e))
+            return false;
+        return add(e, journal.logAdd(e, () -> nextSequence++));
+    }
+
+    /**
+     * Attempts to add given event to the list with the given sequence number,
+     * such as one given out across several calendars whose events are later
+     * merged in the order they were added. The sequence numbers a calendar is
+     * given must increase with every event added to it.
+     * @param e the event to be added to the list
+     * @param seq the sequence number the event is added with
+     * @return true if adding the event was successful, false otherwise.
+     */
+    boolean add(Event e, long seq){
+        if (!e.getDate().isValid())
+            return false;
+        long key = BookingKey.of(e);
+        MonthPartition p = partitionFor(MonthPartition.monthOf(e.getDate()));
+        if (p.contains(key))
+            return false;
+        p.add(e, key, seq);
+        if (availability != null)
+            availability.book(key);
+        numEvents++;
+        return true;
+    }
+
+    /**
+     * Adds every event in the given batch, making room for all of them up front
+     * so each partition is sized once instead of growing during the load. Events
+     * that are already in the list, or that appear twice in the batch, are skipped.
+     * @param batch the events to be added to the list
+     * @return the number of events that were added
+     */
+    @Override
+    public int addAll(Event[] batch){
+        presize(batch, batch.length);
+        int added = 0;
+        for (Event e : batch)
+            if (add(e))
+                added++;
+        return added;
+    }
+
+    /**
+     * Fills an empty calendar with the given events, such as those read back from
+     * a snapshot. The partitions keep the order the events are given in, while
+     * their ordered indexes are filled in booking key order, which is much cheaper
+     * than adding the events to them one at a time in any order.
+     * @param loaded the events to be loaded, in the order they were added
+     * @param count the number of events in the array to load
+     * @return true if the events were loaded, false if two of them are booked at
+     * the same date, timeslot, and location, in which case the calendar is left empty
+     */
+    boolean restore(Event[] loaded, int count){
+        if (numEvents != 0)
+            throw new IllegalStateException("Only an empty calendar can be restored");
+        presize(loaded, count);
+        for (int i = 0; i < count; i++){
+            Event e = loaded[i];
+            if (!partitionFor(MonthPartition.monthOf(e.getDate())).append(e, BookingKey.of(e), nextSequence++)){
+                partitions = new MonthPartition[BOOKING_MONTHS];
+                partitionCount = 0;
+                return false;
+            }
+        }
+        for (int i = 0; i < partitionCount; i++)
+            partitions[i].indexAppended();
+        numEvents = count;
+        return true;
     }
 
     /**
      * Accessor method for getting the list of events
-     * @return the list of events
+     * @return a copy of the list of events, in the order they were added,
+     * without any holes left behind by removals
+     */
+    @Override
+    public Event[] getEvents(){
+        Event[] copy = new Event[numEvents];
+        int k = 0;
+        for (Event e : inOrderAdded())
+            copy[k++] = e;
+        return copy;
+    }
+
+    /**
+     * Copies out every event in the order they were added, along with the
+     * sequence number each was added with
+     * @param events filled with the events, which must have room for all of them
+     * @param sequence filled with the sequence number of each event, matching the events
+     * @return the number of events copied
+     */
+    int copyInOrderAdded(Event[] events, long[] sequence){
+        return MonthPartition.copyInOrderAdded(partitions, partitionCount, events, sequence);
+    }
+
+    /**
+     * Copies out the events one of the reports lists, in the order it lists them,
+     * so the report can be written after the calendar has moved on
+     * @param report the command of the report: PRINT, PRINT_BY_DATE,
+     * PRINT_BY_CAMPUS, or PRINT_BY_DEPARTMENT
+     * @return the events of the report, which are none if the calendar is empty
+     * @throws IllegalArgumentException if the command is not one of those reports
+     */
+    @Override
+    Event[] report(Command report){
+        switch (report){
+            case PRINT:
+                return getEvents();
+            case PRINT_BY_DATE:
+                return concat(MonthPartition::byDate);
+            case PRINT_BY_CAMPUS:
+                Event[] byCampus = new Event[numEvents];
+                int k = 0;
+                for (Location l : CAMPUS_ORDER)
+                    for (int i = 0; i < partitionCount; i++)
+                        k = partitions[i].at(l).copyTo(byCampus, k);
+                return byCampus;
+            case PRINT_BY_DEPARTMENT:
+                Event[] byDept = new Event[numEvents];
+                int j = 0;
+                for (Department d : Department.values())
+                    for (int i = 0; i < partitionCount; i++)
+                        j = partitions[i].of(d).copyTo(byDept, j);
+                return byDept;
+            default:
+                throw new IllegalArgumentException("Not a report: " + report);
+        }
+    }
+
+    /**
+     * Accessor method for the events taking place at the given location
+     * @param l the location
+     * @return the events at the location, in date order
      */
-    public Event[] getEvents(){return events;}
+    @Override
+    public Event[] getEventsAt(Location l){return concat(p -> p.at(l));}
+
+    /**
+     * Accessor method for the events whose contact is in the given department
+     * @param d the department
+     * @return the events of the department, in date order
+     */
+    @Override
+    public Event[] getEventsOf(Department d){return concat(p -> p.of(d));}
+
+    /**
+     * Accessor method for the events starting in the given timeslot
+     * @param t the timeslot
+     * @return the events starting in the timeslot, in date order
+     */
+    @Override
+    public Event[] getEventsIn(Timeslot t){return concat(p -> p.in(t));}
+
+    /**
+     * Copies out the same sorted part of every partition, one partition after the
+     * other, which keeps them in date order since the partitions are in month order
+     * @param part picks the part of a partition to be copied
+     * @return the events of every part, in date order
+     */
+    private Event[] concat(Function<MonthPartition, SortedRun> part){
+        int n = 0;
+        for (int i = 0; i < partitionCount; i++)
+            n += part.apply(partitions[i]).size();
+        Event[] all = new Event[n];
+        int k = 0;
+        for (int i = 0; i < partitionCount; i++)
+            k = part.apply(partitions[i]).copyTo(all, k);
+        return all;
+    }
+
+    /**
+     * Copies out the same sorted part of every partition into a single run,
+     * along with the booking key each event was added with
+     * @param part picks the part of a partition to be copied
+     * @return a new run holding the events of every part, in date order
+     */
+    SortedRun copyRun(Function<MonthPartition, SortedRun> part){
+        int n = 0;
+        for (int i = 0; i < partitionCount; i++)
+            n += part.apply(partitions[i]).size();
+        SortedRun all = new SortedRun();
+        all.ensureCapacity(n);
+        for (int i = 0; i < partitionCount; i++)
+            all.append(part.apply(partitions[i]));
+        return all;
+    }
+
+    /**
+     * Walks the events of every partition in the order they were added
+     * @return the events, in the order they were added
+     */
+    private Iterable<Event> inOrderAdded(){return () -> MonthPartition.inOrderAdded(partitions, partitionCount);}
 
     /**
      * Accessor method for the number of events registered in the calendar.
      * @return  the number of events in the calendar.
      */
+    @Override
     public int getNumEvents(){return numEvents;}
 
+    /**
+     * Saves every event in the calendar to a binary snapshot in the given file,
+     * replacing any snapshot already there
+     * @param path the file the snapshot is written to
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Override
+    public void save(Path path) throws IOException {CalendarSnapshot.write(encode(), path);}
+
+    /**
+     * Saves every event in the calendar to a binary snapshot in the given file
+     * without waiting for it to be written. The events are copied into the
+     * snapshot before returning, so the calendar can keep changing while the
+     * snapshot is written to disk in the background.
+     * @param path the file the snapshot is written to
+     * @return a future completing once the snapshot is on disk, or completing
+     * exceptionally with an UncheckedIOException if it could not be written
+     */
+    @Override
+    public CompletableFuture<Void> saveAsync(Path path){
+        ByteBuffer snapshot = encode();
+        return CompletableFuture.runAsync(() -> {
+            try{
+                CalendarSnapshot.write(snapshot, path);
+            }catch (IOException ioe){
+                throw new UncheckedIOException(ioe);
+            }
+        });
+    }
+
+    /**
+     * Encodes every event in the calendar into a snapshot, in the order they were added
+     * @return a buffer holding the whole snapshot
+     */
+    private ByteBuffer encode(){
+        Event[] events = getEvents();
+        long[] keys = new long[events.length];
+        for (int i = 0; i < events.length; i++)
+            keys[i] = BookingKey.of(events[i]);
+        return CalendarSnapshot.encode(events, keys, events.length, events.length);
+    }
+
+    /**
+     * Loads a calendar from a binary snapshot made by save, with its events in
+     * the order they were originally added
+     * @param path the file holding the snapshot
+     * @return a new calendar holding the events of the snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static EventCalendar load(Path path) throws IOException {return CalendarSnapshot.read(path);}
+
     /**
      * Prints all the events in the calendar the way they are, no need for
      * sorting
      */
-    public void print(){
+    public void print(){print(out);}
+
+    /**
+     * Prints all the events in the calendar the way they are, no need for
+     * sorting, to the given sink
+     * @param out the sink the report is written to
+     */
+    @Override
+    public void print(OutputSink out){
         if (isEmpty()){
-            System.out.println("Event calendar is empty!");
+            out.println(EMPTY);
             return;
         }
-        System.out.println("* Event calendar *");
-        for (int i = 0; i < numEvents; i++)
-            System.out.printf("%s\n", events[i]);
-        System.out.println("* end of event calendar *");
+        if (ParallelRenderer.isWorthIt(numEvents))
+            printEvents(out, HEADER, report(Command.PRINT));
+        else
+            printEvents(out, HEADER, inOrderAdded());
     }
 
     /**
      * Prints all the events in the calendar after they have been sorted based off
-     * their campus location
+     * their campus location, then building, then date. Each partition buckets its
+     * events by location in date order, so no sorting is needed.
      */
-    public void printByCampus(){
+    public void printByCampus(){printByCampus(out);}
+
+    /**
+     * Prints all the events in the calendar ordered by campus, then building,
+     * then date, to the given sink
+     * @param out the sink the report is written to
+     */
+    @Override
+    public void printByCampus(OutputSink out){
         if (isEmpty()) {
-            System.out.println("Event calendar is empty!");
+            out.println(EMPTY);
             return;
         }
-        System.out.println("* Event calendar by campus and building *");
-        for (int i = 0; i < numEvents; i++){
-            Location l1 = events[i].getLocation();
-            for (int j = i + 1; j < numEvents; j++){
-                Location l2 = events[j].getLocation();
-                if (l1.compareTo(l2) > 0)
-                    swap(events[i], events[j]);
-            }
+        if (ParallelRenderer.isWorthIt(numEvents)){
+            printEvents(out, CAMPUS_HEADER, report(Command.PRINT_BY_CAMPUS));
+            return;
         }
-        for (int i = 0; i < numEvents; i++)
-            System.out.printf("%s\n", events[i]);
-        System.out.println("* end of event calendar *");
+        out.println(CAMPUS_HEADER);
+        for (Location l : CAMPUS_ORDER)
+            for (int i = 0; i < partitionCount; i++)
+                printRun(out, partitions[i].at(l));
+        out.println(FOOTER);
     }
 
     /**
      * Prints all the events in the calendar after they have been sorted based off
-     * their departments
+     * their departments, then date. Each partition buckets its events by
+     * department in date order, so no sorting is needed.
+     */
+    public void printByDepartment(){printByDepartment(out);}
+
+    /**
+     * Prints all the events in the calendar ordered by department, then date,
+     * to the given sink
+     * @param out the sink the report is written to
      */
-    public void printByDepartment(){
+    @Override
+    public void printByDepartment(OutputSink out){
         if (isEmpty()){
-            System.out.println("Event calendar is empty!");
+            out.println(EMPTY);
             return;
         }
-        System.out.println("* Event calendar by department *");
-        for (int i = 0; i < numEvents; i++){
-            Department d1 = events[i].getContact().getDepartment();
-            for (int j = i + 1; j < numEvents; j++){
-                Department d2 = events[j].getContact().getDepartment();
-                if (d1.compareTo(d2) > 0)
-                    swap(events[i], events[j]);
-            }
+        if (ParallelRenderer.isWorthIt(numEvents)){
+            printEvents(out, DEPARTMENT_HEADER, report(Command.PRINT_BY_DEPARTMENT));
+            return;
         }
-        for (int i = 0; i < numEvents; i++)
-            System.out.printf("%s\n", events[i]);
-        System.out.println("* end of event calendar *");
+        out.println(DEPARTMENT_HEADER);
+        for (Department d : Department.values())
+            for (int i = 0; i < partitionCount; i++)
+                printRun(out, partitions[i].of(d));
+        out.println(FOOTER);
     }
 
     /**
-     * Prints all the events in the calendar after they have been sorted based off
-     * their dates
+     * Prints all the events in the calendar ordered by their dates, then timeslots.
+     * Each partition is already in date order, and the partitions in month
+     * order, so no sorting is needed.
+     */
+    public void printByDate(){printByDate(out);}
+
+    /**
+     * Prints all the events in the calendar ordered by their dates, then
+     * timeslots, to the given sink
+     * @param out the sink the report is written to
+     */
+    @Override
+    public void printByDate(OutputSink out){
+        if (isEmpty()){
+            out.println(EMPTY);
+            return;
+        }
+        if (ParallelRenderer.isWorthIt(numEvents)){
+            printEvents(out, DATE_HEADER, report(Command.PRINT_BY_DATE));
+            return;
+        }
+        out.println(DATE_HEADER);
+        for (int i = 0; i < partitionCount; i++)
+            printRun(out, partitions[i].byDate());
+        out.println(FOOTER);
+    }
+
+    /**
+     * Finds the events taking place between the given dates, both included.
+     * Partitions of months outside the range are skipped whole, and the ends of
+     * the range are found in the others by binary search over their date order.
+     * @param from the first date of the range, which should be a valid date
+     * @param to the last date of the range, which should be a valid date
+     * @return the events in the range, ordered by date, then timeslot
+     */
+    @Override
+    public Event[] range(Date from, Date to){
+        if (from.compareTo(to) > 0)
+            return new Event[0];
+        long first = BookingKey.pack(from.toEpochDay(), 0, 0),
+                afterLast = BookingKey.pack(to.toEpochDay() + 1, 0, 0);
+        long lastMonth = MonthPartition.monthOf(to);
+        int start = ceiling(MonthPartition.monthOf(from)), end, n = 0;
+        for (end = start; end < partitionCount && partitions[end].getMonth() <= lastMonth; end++){
+            SortedRun run = partitions[end].byDate();
+            n += run.indexOf(afterLast) - run.indexOf(first);
+        }
+        Event[] found = new Event[n];
+        int k = 0;
+        for (int i = start; i < end; i++){
+            SortedRun run = partitions[i].byDate();
+            k = run.copyTo(run.indexOf(first), run.indexOf(afterLast), found, k);
+        }
+        return found;
+    }
+
+    /**
+     * Prints the events taking place between the given dates, both included,
+     * ordered by their dates, then timeslots
+     * @param from the first date of the range, which should be a valid date
+     * @param to the last date of the range, which should be a valid date
      */
-    public void printByDate(){
+    public void printRange(Date from, Date to){printRange(from, to, out);}
+
+    /**
+     * Prints the events taking place between the given dates, both included,
+     * ordered by their dates, then timeslots, to the given sink
+     * @param from the first date of the range, which should be a valid date
+     * @param to the last date of the range, which should be a valid date
+     * @param out the sink the report is written to
+     */
+    @Override
+    public void printRange(Date from, Date to, OutputSink out){
         if (isEmpty()){
-            System.out.println("Event calendar is empty!");
+            out.println(EMPTY);
             return;
         }
-        System.out.println("* Event calendar by event date and start time *");
-        for (int i = 0; i < numEvents; i++){
-            Date d1 = events[i].getDate();
-            for (int j = i + 1; j < numEvents; j++){ 
-                Date d2 = events[j].getDate();
-                if (d1.compareTo(d2) > 0)
-                    swap(events[i], events[j]);
+        printEvents(out, rangeHeader(from, to), range(from, to));
+    }
+
+    /**
+     * Checks if the given room is free at the given date and timeslot, and that
+     * the date is inside the booking window
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return true if the room can be booked then, false otherwise
+     */
+    @Override
+    public boolean isFree(Date date, Timeslot timeslot, Location location){
+        return isFree(availability(), date, timeslot, location);
+    }
+
+    /**
+     * Checks if the given room is free at the given date and timeslot in the
+     * given availability bitmap, and that the date is inside the booking window
+     * @param window the availability bitmap of the current booking window
+     * @param date the date of the booking
+     * @param timeslot the timeslot of the booking
+     * @param location the location of the booking
+     * @return true if the room can be booked then, false otherwise
+     */
+    static boolean isFree(RoomAvailability window, Date date, Timeslot timeslot, Location location){
+        if (!date.isValid())
+            return false;
+        return window.isFree(BookingKey.of(date, timeslot, location));
+    }
+
+    /**
+     * Finds the earliest free bookings inside the booking window
+     * @param n the most bookings to find
+     * @param location the only location to look at, or null for every location
+     * @return the packed keys of the free bookings, in date order, then timeslot,
+     * then location
+     */
+    @Override
+    long[] findFree(int n, Location location){return findFree(availability(), n, location);}
+
+    /**
+     * Finds the earliest free bookings in the given availability bitmap
+     * @param window the availability bitmap of the current booking window
+     * @param n the most bookings to find
+     * @param location the only location to look at, or null for every location
+     * @return the packed keys of the free bookings, in date order, then timeslot,
+     * then location
+     */
+    static long[] findFree(RoomAvailability window, int n, Location location){
+        long[] found = new long[Math.min(n, window.slots(location))]; //n comes straight from the command
+        int count = window.findFree(location, found);
+        return count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Prints the earliest free bookings inside the booking window, each in the
+     * same date, timeslot, and room form the add command takes
+     * @param n the most bookings to print
+     * @param location the only location to look at, or null for every location
+     */
+    public void printFreeSlots(int n, Location location){printFreeSlots(n, location, out);}
+
+    /**
+     * Prints the given free bookings, each in the same date, timeslot, and room
+     * form the add command takes
+     * @param out the sink the report is written to
+     * @param free the packed keys of the free bookings, in order
+     */
+    static void printFreeSlots(OutputSink out, long[] free){
+        if (free.length == 0){
+            out.println("No free timeslots within 6 months!");
+            return;
+        }
+        Timeslot[] timeslots = Timeslot.values();
+        Location[] locations = Location.values();
+        out.println("* Free timeslots *");
+        long epochDay = Long.MIN_VALUE;
+        Date date = null;
+        try{
+            for (long key : free){
+                if (BookingKey.epochDay(key) != epochDay) //free bookings come a day at a time
+                    date = Date.fromEpochDay(epochDay = BookingKey.epochDay(key));
+                date.appendTo(out).append(' ');
+                out.append(timeslots[BookingKey.timeslot(key)].getLowerName()).append(' ')
+                        .append(locations[BookingKey.location(key)].getRoomNum()).append('\n');
             }
+        }catch (IOException ioe){ //sinks do not throw checked exceptions
+            throw new UncheckedIOException(ioe);
         }
-        for (int i = 0; i < numEvents; i++)
-            System.out.printf("%s\n", events[i]);
-        System.out.println("* end of event calendar *");
+        out.println("* end of free timeslots *");
     }
+
+    /**
+     * Accessor method for the room availability bitmap, rebuilding it out of the
+     * date index if the booking window has moved since it was built. The window
+     * runs from tomorrow through the booking clock's horizon, the same dates
+     * Date.isWithinSixMonthsOfToday accepts.
+     * @return the room availability bitmap of the current booking window
+     */
+    RoomAvailability availability(){
+        RoomAvailability current = currentAvailability();
+        if (current != null)
+            return current;
+        BookingClock clock = BookingClock.get();
+        long firstDay = clock.today() + 1, lastDay = clock.horizon();
+        RoomAvailability rebuilt = new RoomAvailability(firstDay, (int) (lastDay - firstDay + 1));
+        long first = BookingKey.pack(firstDay, 0, 0), afterLast = BookingKey.pack(lastDay + 1, 0, 0);
+        for (int i = 0; i < partitionCount; i++){
+            SortedRun run = partitions[i].byDate();
+            for (int j = run.indexOf(first); j < run.size() && run.keyAt(j) < afterLast; j++)
+                rebuilt.book(run.keyAt(j));
+        }
+        return availability = rebuilt;
+    }
+
+    /**
+     * Accessor method for the room availability bitmap, only if it has been built
+     * for the current booking window. Unlike availability, this never changes
+     * the calendar, so it can be called while only reading it.
+     * @return the room availability bitmap of the current booking window, or null
+     * if it has to be rebuilt first
+     */
+    RoomAvailability currentAvailability(){
+        RoomAvailability current = availability;
+        return current != null && current.getFirstDay() == BookingClock.get().today() + 1 ? current : null;
+    }
+
+    /**
+     * Prints every event of a sorted run, in order
+     * @param out the sink the events are written to
+     * @param run the events to be printed
+     */
+    private static void printRun(OutputSink out, SortedRun run){
+        for (int i = 0; i < run.size(); i++)
+            out.println(run.eventAt(i));
+    }
+
+    /**
+     * Prints the given header, followed by the given events and the footer
+     * @param out the sink the report is written to
+     * @param header the header line of the report
+     * @param sorted the events in the order they should be printed
+     */
+    static void printEvents(OutputSink out, String header, Iterable<Event> sorted){
+        out.println(header);
+        for (Event e : sorted)
+            out.println(e);
+        out.println(FOOTER);
+    }
+
+    /**
+     * Prints the given header, followed by the given events and the footer,
+     * leaving the sink to render a long run of events in parallel
+     * @param out the sink the report is written to
+     * @param header the header line of the report
+     * @param sorted the events in the order they should be printed
+     */
+    static void printEvents(OutputSink out, String header, Event[] sorted){
+        out.println(header);
+        out.printAll(sorted);
+        out.println(FOOTER);
+    }
+
+    /**
+     * Builds the header line of the report of events between two dates
+     * @param from the first date of the range
+     * @param to the last date of the range
+     * @return the header line
+     */
+    static String rangeHeader(Date from, Date to){return "* Event calendar from " + from + " to " + to + " *";}
 }
@@ -1,129 +1,690 @@
 package csevent;
-import java.util.StringTokenizer;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
 
 /**
  * The main class that handles the event calendar and accepts user input and breaks
- * it down into tokens so the program can handle each command
+ * it down into tokens so the program can handle each command. Each command line
+ * goes through four stages: it is parsed into a request, the request is checked,
+ * applied to the calendar, and its output is written. The stages either run one
+ * after the other for each line, or, if the organizer is pipelined, each on a
+ * thread of its own, handing requests on through bounded queues so parsing and
+ * writing overlap with changing the calendar. Since checking a request never
+ * looks at the calendar, and a report copies out its events when applied, the
+ * output is the same either way.
  * @author Siddharth Sircar
  * @author Yash Shah
  * @since September 18, 2023
  */
 public class EventOrganizer {
+    /**
+     * The most requests waiting between two stages of a pipelined organizer
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * A single command line on its way through the stages of the organizer: the
+     * tokens read off the line, then what checking and applying it found, until
+     * its output is written. Handling one line at a time, the organizer reuses a
+     * single request for every line instead of making one for each.
+     */
+    private static final class Request {
+        /**
+         * The request following the last one, once the commands run out
+         */
+        private static final Request END = new Request();
+
+        /**
+         * The command of the line, or null if its code is not valid
+         */
+        private Command command;
+
+        /**
+         * Whether the output should be flushed once the request's is written
+         */
+        private boolean flush;
+
+        /**
+         * The number of arguments read off the line before the parse failed,
+         * or all of them if it did not
+         */
+        private int parsed;
+
+        /**
+         * Why the arguments could not all be read off the line, or null. It is
+         * only thrown once an argument that was not read is needed, the same
+         * point a command handled token by token would have thrown it at.
+         */
+        private RuntimeException failure;
+
+        /**
+         * The date of the command, or the first date of a range
+         */
+        private Date date;
+
+        /**
+         * The last date of a range
+         */
+        private Date to;
+
+        /**
+         * The timeslot of the command, or null if it is not valid
+         */
+        private Timeslot timeslot;
+
+        /**
+         * The location of the command, or null if it is not valid or not given
+         */
+        private Location location;
+
+        /**
+         * Whether the command gives a location
+         */
+        private boolean hasLocation;
+
+        /**
+         * The department of the contact, or null if it is not valid
+         */
+        private Department department;
+
+        /**
+         * The email of the contact
+         */
+        private String email;
+
+        /**
+         * The duration of an event, or the number of free timeslots to find
+         */
+        private int number;
+
+        /**
+         * The event to be added, once the request has been checked
+         */
+        private Event event;
+
+        /**
+         * Whether checking the request found it cannot be applied
+         */
+        private boolean rejected;
+
+        /**
+         * The lines of output of the request other than a report, or null
+         */
+        private String reply;
+
+        /**
+         * The header of the report, or null if the calendar was empty
+         */
+        private String header;
+
+        /**
+         * The events of the report, copied out when the request was applied, or null
+         */
+        private Event[] events;
+
+        /**
+         * The packed keys of the free bookings found, or null
+         */
+        private long[] free;
+
+        /**
+         * What went wrong in a stage of a pipelined organizer, thrown again when
+         * the output of the request would have been written, or null
+         */
+        private RuntimeException crash;
+
+        /**
+         * Starts the request over for a new command line, forgetting everything
+         * about the last one
+         * @param command the command of the line, or null if its code is not valid
+         * @param flush whether the output should be flushed once the request's is written
+         * @return this request
+         */
+        private Request start(Command command, boolean flush){
+            this.command = command;
+            this.flush = flush;
+            parsed = 0;
+            failure = null;
+            date = to = null;
+            timeslot = null;
+            location = null;
+            hasLocation = false;
+            department = null;
+            email = null;
+            number = 0;
+            event = null;
+            rejected = false;
+            reply = header = null;
+            events = null;
+            free = null;
+            crash = null;
+            return this;
+        }
+
+        /**
+         * Rethrows why the arguments could not be read off the line, if the parse
+         * did not get as far as the given argument
+         * @param argument the number of the argument needed, counting from 1
+         */
+        private void require(int argument){
+            if (parsed < argument)
+                throw failure;
+        }
+
+        /**
+         * Adds a line to the output of the request
+         * @param line the line to be added
+         */
+        private void reply(String line){
+            reply = reply == null ? line : reply + '\n' + line; //rarely more than one
+        }
+
+        /**
+         * Adds a line to the output of the request, and rejects it
+         * @param line the line saying why the request is rejected
+         */
+        private void reject(String line){
+            reply(line);
+            rejected = true;
+        }
+    }
+
     /**
      * The main event calendar
      */
-    private EventCalendar ec;
+    private BookingCalendar ec;
+
+    /**
+     * The sink every message and report is written to
+     */
+    private OutputSink out;
+
+    /**
+     * The journal every successful add and remove is recorded in, or null
+     */
+    private CommandJournal journal;
+
+    /**
+     * Whether the stages of the organizer run on threads of their own
+     */
+    private boolean pipelined;
+
+    /**
+     * Default constructor for initializing the calendar, writing to the console
+     */
+    public EventOrganizer(){this(new EventCalendar(), new BufferedSink(System.out));}
+
+    /**
+     * Constructor for an organizer of the given calendar, writing every message
+     * and report to the given sink
+     * @param ec the calendar to be organized
+     * @param out the sink the output is written to
+     */
+    public EventOrganizer(BookingCalendar ec, OutputSink out){
+        this.ec = ec;
+        this.out = out;
+    }
+
+    /**
+     * Mutator method for the sink every message and report is written to. The
+     * calendar's reports are written to it too, so calendars shared between
+     * organizers keep each one's output apart.
+     * @param out the sink the output should be written to
+     */
+    public void setOutput(OutputSink out){this.out = out;}
+
+    /**
+     * Mutator method for the journal every successful add and remove is recorded
+     * in. The journal is committed whenever the output is flushed, and before
+     * the output of the commands it records is.
+     * @param journal the journal to record changes in, or null to stop recording them
+     */
+    void setJournal(CommandJournal journal){this.journal = journal;}
 
     /**
-     * Default constructor for initializing the calendar
+     * Mutator method for whether the stages of the organizer run on threads of
+     * their own, connected by bounded queues, instead of one after the other
+     * @param pipelined whether the organizer should be pipelined
      */
-    public EventOrganizer(){ec = new EventCalendar();}
+    public void setPipelined(boolean pipelined){this.pipelined = pipelined;}
 
     /**
      * Main method used for running (and eventually terminating) the event
-     * calendar
+     * calendar. The output is flushed, and the journal committed, after every
+     * command that is not immediately followed by more input, so commands piped
+     * in are committed together.
+     */
+    public void run(){run(System.in);}
+
+    /**
+     * Runs the commands read from the given stream, such as a client's connection,
+     * committing the journal and flushing the output whenever every command read
+     * so far has been handled
+     * @param in the stream the commands are read from
+     */
+    void run(InputStream in){
+        process(new CommandReader(in), true);
+    }
+
+    /**
+     * Runs every command in the given file, memory-mapping it instead of reading
+     * it line by line. Output is buffered and written a block at a time, either
+     * to the given results file or to the console.
+     * @param commands the file of commands to be run
+     * @param results the file the output is written to, or null for the console
+     * @throws IOException if the commands cannot be read or the results cannot be written
+     */
+    public void runBatch(Path commands, Path results) throws IOException {
+        OutputSink console = out;
+        FileChannel resultFile = results == null ? null : FileChannel.open(results,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try (FileChannel in = FileChannel.open(commands, StandardOpenOption.READ)){
+            if (resultFile != null)
+                setOutput(new BufferedSink(resultFile));
+            process(new CommandReader(in), false);
+        }finally{
+            setOutput(console);
+            if (resultFile != null)
+                resultFile.close();
+        }
+    }
+
+    /**
+     * Reads and handles commands from the given reader until a "Q" is read or
+     * the commands run out. The greeting, the output of each command, and the
+     * closing message are each ended as a separate response. If a command
+     * cannot be handled, the journal is still committed and the output flushed
+     * up to it before the failure is thrown, so nothing already done is lost.
+     * @param in the reader the commands are read from
+     * @param flushWhenCaughtUp whether the journal should be committed and the
+     * output flushed whenever every command read so far has been handled, or
+     * only once the commands are done
+     */
+    private void process(CommandReader in, boolean flushWhenCaughtUp){
+        out.println("Event organizer running...\n");
+        out.endResponse();
+        try{
+            if (flushWhenCaughtUp)
+                flush(); //someone may be waiting on the greeting before typing anything
+            if (pipelined)
+                processPipelined(in, flushWhenCaughtUp);
+            else{
+                Request r = new Request();
+                try{
+                    while (in.nextLine()){
+                        if (!in.hasMoreTokens())
+                            continue;
+                        parse(in, flushWhenCaughtUp && !in.hasBufferedLine(), r);
+                        validate(r);
+                        apply(r);
+                        write(r);
+                        if (r.command == Command.QUIT)
+                            break;
+                    }
+                }catch (IOException ioe){
+                    write(readFailure(ioe));
+                }
+            }
+        }finally{
+            flush();
+        }
+    }
+
+    /**
+     * Handles commands with each stage on a thread of its own: this thread writes
+     * the output, while the others parse, check, and apply the requests. If a
+     * stage fails on a request, the stages after it stop there, and the failure
+     * is thrown here once the output before it is written.
+     * @param in the reader the commands are read from
+     * @param flushWhenCaughtUp whether the journal should be committed and the
+     * output flushed whenever every command read so far has been handled
+     */
+    private void processPipelined(CommandReader in, boolean flushWhenCaughtUp){
+        BlockingQueue<Request> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                checked = new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                applied = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Thread[] stages = {
+                stage("parse", () -> parseAll(in, flushWhenCaughtUp, parsed)),
+                stage("validate", () -> relay(parsed, checked, this::validate)),
+                stage("apply", () -> relay(checked, applied, this::apply))
+        };
+        try{
+            for (Request r = applied.take(); r != Request.END; r = applied.take())
+                write(r);
+        }catch (InterruptedException ie){
+            Thread.currentThread().interrupt();
+        }finally{
+            for (Thread t : stages)
+                t.interrupt();
+        }
+    }
+
+    /**
+     * Starts a stage of a pipelined organizer on a thread of its own, which does
+     * not keep the program running if the organizer stops before it does
+     * @param name the name of the stage
+     * @param stage the stage
+     * @return the thread running the stage
+     */
+    private static Thread stage(String name, Runnable stage){
+        Thread t = new Thread(stage, "organizer-" + name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    /**
+     * The first stage of a pipelined organizer: parses every command line into a
+     * request and hands it on, until a "Q" is read or the commands run out
+     * @param in the reader the commands are read from
+     * @param flushWhenCaughtUp whether the output should be flushed whenever every
+     * command read so far has been handled
+     * @param next the queue the requests are handed on through
      */
-    public void run(){
-        System.out.println("Event organizer running...\n");
-        Scanner sc = new Scanner(System.in);
-        while (true){
-            StringTokenizer st = new StringTokenizer(sc.nextLine());
+    private static void parseAll(CommandReader in, boolean flushWhenCaughtUp, BlockingQueue<Request> next){
+        try{
             try{
-                handleCommand(st);
-            }catch (InterruptedException ie){
-                System.out.println("Event Organizer terminated.");
-                return;
+                while (in.nextLine()){
+                    if (!in.hasMoreTokens())
+                        continue;
+                    Request r = parse(in, flushWhenCaughtUp && !in.hasBufferedLine(), new Request());
+                    next.put(r);
+                    if (r.command == Command.QUIT)
+                        break;
+                }
+            }catch (IOException ioe){
+                next.put(readFailure(ioe));
+            }catch (RuntimeException re){
+                Request r = new Request().start(null, false);
+                r.crash = re;
+                next.put(r);
+            }
+            next.put(Request.END);
+        }catch (InterruptedException ie){ //the organizer stopped early
+        }
+    }
+
+    /**
+     * A middle stage of a pipelined organizer: takes each request, runs the stage
+     * on it, and hands it on, until the requests run out or the stage fails
+     * @param from the queue the requests are taken from
+     * @param to the queue the requests are handed on through
+     * @param stage the stage
+     */
+    private static void relay(BlockingQueue<Request> from, BlockingQueue<Request> to, Consumer<Request> stage){
+        try{
+            while (true){
+                Request r = from.take();
+                if (r != Request.END && r.crash == null){
+                    try{
+                        stage.accept(r);
+                    }catch (RuntimeException re){
+                        r.crash = re;
+                    }
+                }
+                to.put(r);
+                if (r == Request.END || r.crash != null)
+                    return;
+            }
+        }catch (InterruptedException ie){ //the organizer stopped early
+        }
+    }
+
+    /**
+     * Builds the request reporting that the commands could not be read
+     * @param ioe why the commands could not be read
+     * @return the request
+     */
+    private static Request readFailure(IOException ioe){
+        Request r = new Request().start(null, false);
+        r.reject("Could not read commands: " + ioe.getMessage());
+        return r;
+    }
+
+    /**
+     * Commits the journal, if there is one, then flushes the output, so no
+     * command is reported done before it is recorded
+     */
+    private void flush(){
+        if (journal != null)
+            journal.commit();
+        out.flush();
+    }
+
+    /**
+     * Reads the command on the current line of the given reader, and its
+     * arguments, into a request. If an argument cannot be read, the ones after
+     * it are not either, and the request remembers why. Reading also stops once
+     * an argument read means the request will be rejected, since checking it
+     * never looks at the arguments after that one; most bad commands have a bad
+     * date, and their other arguments would only be read to be thrown away.
+     * @param in the reader positioned at the command to be parsed
+     * @param flush whether the output should be flushed once the request's is written
+     * @param r the request the line is read into
+     * @return the request of the line
+     */
+    private static Request parse(CommandReader in, boolean flush, Request r){
+        Command command = in.nextCommand();
+        r.start(command, flush);
+        if (command == null){
+            r.reject(in.lastToken() + " is not a valid token.");
+            return r;
+        }
+        try{
+            switch (command){
+                case ADD:
+                case REMOVE:
+                    r.date = in.nextDate();
+                    r.parsed++;
+                    if (!isViable(r.date))
+                        break;
+                    r.timeslot = in.nextTimeslot();
+                    r.parsed++;
+                    r.location = in.nextLocation();
+                    r.parsed++;
+                    if (command == Command.REMOVE || r.timeslot == null || r.location == null)
+                        break;
+                    r.department = in.nextDepartment();
+                    r.email = in.nextToken();
+                    r.parsed++;
+                    r.number = in.nextInt();
+                    r.parsed++;
+                    break;
+                case PRINT_RANGE:
+                    r.date = in.nextDate();
+                    r.to = in.nextDate();
+                    r.parsed++;
+                    break;
+                case FIND_FREE:
+                    r.number = in.nextInt();
+                    r.parsed++;
+                    r.hasLocation = in.hasMoreTokens();
+                    if (r.hasLocation)
+                        r.location = in.nextLocation();
+                    r.parsed++;
+                    break;
+                default:
+                    break;
             }
+        }catch (RuntimeException re){ //thrown once the argument is needed
+            r.failure = re;
+        }
+        return r;
+    }
+
+    /**
+     * Checks the arguments of a request, rejecting it with the reason if it
+     * cannot be applied. Nothing about the calendar is looked at.
+     * @param r the request to be checked
+     */
+    private void validate(Request r){
+        if (r.rejected || r.command == null)
+            return;
+        switch (r.command){
+            case ADD:
+                validateAdd(r);
+                break;
+            case REMOVE:
+                validateRemove(r);
+                break;
+            case PRINT_RANGE:
+                validatePrintRange(r);
+                break;
+            case FIND_FREE:
+                validateFindFree(r);
+                break;
+            default:
+                break;
         }
     }
 
     /**
-     * Handles the command passed in through the given StringTokenizer
-     * @param st the StringTokenizer containing the command to be processed
-     * @throws InterruptedException when a "Q" is passed in to terminate the process
+     * Applies a request that was not rejected to the calendar. Adds and removes
+     * are made, and recorded in the journal if there is one; reports copy out
+     * the events they list, so they can be written after the calendar moves on.
+     * @param r the request to be applied
      */
-    private void handleCommand(StringTokenizer st) throws InterruptedException {
-        String s = st.nextToken();
-        switch (s){
-            case "A":
-                handleAdd(st);
+    private void apply(Request r){
+        if (r.rejected || r.command == null)
+            return;
+        switch (r.command){
+            case ADD:
+                boolean added = journal == null ? ec.add(r.event) : journal.add(ec, r.event);
+                r.reply(added ? "Event added to the calendar." : "The event is already on the calendar.");
                 break;
-            case "R":
-                handleRemove(st);
+            case REMOVE:
+                boolean removed = journal == null ? ec.remove(r.date, r.timeslot, r.location)
+                        : journal.remove(ec, r.date, r.timeslot, r.location);
+                r.reply(removed ? "Event has been removed from the calendar!"
+                        : "Cannot remove; event is not in the calendar! ");
                 break;
-            case "P":
-                ec.print();
+            case PRINT:
+                report(r, EventCalendar.HEADER);
                 break;
-            case "PE":
-                ec.printByDate();
+            case PRINT_BY_DATE:
+                report(r, EventCalendar.DATE_HEADER);
                 break;
-            case "PC":
-                ec.printByCampus();
+            case PRINT_BY_CAMPUS:
+                report(r, EventCalendar.CAMPUS_HEADER);
                 break;
-            case "PD":
-                ec.printByDepartment();
+            case PRINT_BY_DEPARTMENT:
+                report(r, EventCalendar.DEPARTMENT_HEADER);
                 break;
-            case "Q":
-                throw new InterruptedException();
-            default:
-                System.out.println(s + " is not a valid token.");
+            case PRINT_RANGE:
+                r.events = ec.range(r.date, r.to);
+                if (r.events.length > 0 || ec.getNumEvents() > 0)
+                    r.header = EventCalendar.rangeHeader(r.date, r.to);
+                break;
+            case FIND_FREE:
+                r.free = ec.findFree(r.number, r.location);
+                break;
+            case QUIT:
+                r.reply("Event Organizer terminated.");
+                break;
+        }
+    }
+
+    /**
+     * Copies out the events of one of the calendar's reports into a request
+     * @param r the request of the report
+     * @param header the header line of the report
+     */
+    private void report(Request r, String header){
+        r.events = ec.report(r.command);
+        if (r.events.length > 0)
+            r.header = header;
+    }
+
+    /**
+     * Writes the output of a request, ending it as a response, and flushes the
+     * output if the request calls for it
+     * @param r the request whose output is written
+     */
+    private void write(Request r){
+        if (r.crash != null)
+            throw r.crash;
+        if (r.reply != null)
+            out.println(r.reply);
+        if (r.events != null){
+            if (r.header == null)
+                out.println(EventCalendar.EMPTY);
+            else
+                EventCalendar.printEvents(out, r.header, r.events);
         }
+        if (r.free != null)
+            EventCalendar.printFreeSlots(out, r.free);
+        out.endResponse();
+        if (r.flush)
+            flush();
     }
 
     /**
-     * A helper method made to handle adding events to the calendar,
-     * using the remaining tokens in the StringTokenizer made in the run method.
-     * @param st the StringTokenizer containing the remaining tokens that were scanned.
+     * A helper method made to check the arguments of an add command, making the
+     * event to be added if they are all valid
+     * @param r the request of the command
      */
-    private void handleAdd(StringTokenizer st){
+    private static void validateAdd(Request r){
         final int MINI = 30, MAXI = 120;
-        Date d = makeDate(new StringTokenizer(st.nextToken(), "/"));
-        if (!isViable(d))
+        r.require(1);
+        if (!isViable(r, r.date))
             return;
-        Timeslot ts = getTimeslot(st.nextToken());
-        Location l = getLocation(st.nextToken());
-        if (ts == null || l == null)
+        r.require(2);
+        checkTimeslot(r);
+        r.require(3);
+        checkLocation(r);
+        if (r.rejected)
             return;
-        Contact c = new Contact(getDepartment(st.nextToken()), st.nextToken());
+        r.require(4);
+        Contact c = Contact.of(r.department, r.email);
         if (!c.isValid()){
-            System.out.println("Invalid contact information!");
+            r.reject("Invalid contact information!");
             return;
         }
-        int duration = Integer.parseInt(st.nextToken());
-        if (duration < MINI || duration > MAXI){
-            System.out.println("Event duration must be at least 30 minutes " +
+        r.require(5);
+        if (r.number < MINI || r.number > MAXI){
+            r.reject("Event duration must be at least 30 minutes " +
                     "and at most 120 minutes");
             return;
         }
-        Event e = new Event(d, ts, l, c, duration);
-        if (!ec.add(e)){ //if the event is already in the calendar
-            System.out.println("The event is already on the calendar.");
-            return;
-        }
-        ec.add(e);
-        System.out.println("Event added to the calendar.");
+        r.event = new Event(r.date, r.timeslot, r.location, c, r.number);
+    }
+
+    /**
+     * Checks if a date is viable, without saying why it is not
+     * @param d the date to be checked
+     * @return true if the date is valid, in the future, and within 6 months of
+     * today, false otherwise
+     */
+    private static boolean isViable(Date d){
+        return d.isValid() && d.isInTheFuture() && d.isWithinSixMonthsOfToday();
     }
 
     /**
      * A helper method to determine if a date is viable. The date is considered
      * "viable" if it is valid, in the future, and within 6 months of today.
-     * If it is not viable, an error message should be printed to the console
-     * detailing its exact error.
+     * If it is not viable, the request is rejected with a message detailing
+     * its exact error.
+     * @param r the request the date is part of
      * @param d the date to be checked
      * @return true if the date is viable, false otherwise
      */
-    private boolean isViable(Date d){
+    private static boolean isViable(Request r, Date d){
         if (!d.isValid()){
-            System.out.println(d + ": Invalid calendar date!");
+            r.reject(d + ": Invalid calendar date!");
             return false;
         }
         if (!d.isInTheFuture()){
-            System.out.println(d + ": Event date must be a future date!");
+            r.reject(d + ": Event date must be a future date!");
             return false;
         }
         if (!d.isWithinSixMonthsOfToday()){
-            System.out.println(d + ": Event date must be within 6 months!");
+            r.reject(d + ": Event date must be within 6 months!");
             return false;
         }
         return true;
@@ -131,99 +692,67 @@ public class EventOrganizer {
 
 
     /**
-     * A helper method made to handle removing events from the calendar
-     * @param st the StringTokenizer containing the remaining tokens that were scanned
+     * A helper method made to check the arguments of a remove command
+     * @param r the request of the command
      */
-    private void handleRemove(StringTokenizer st){
-        String date = st.nextToken();
-        Date d = makeDate(new StringTokenizer(date, "/"));
-        if (!isViable(d))
-            return;
-        String timeslot = st.nextToken(), roomNum = st.nextToken();
-        Timeslot t = getTimeslot(timeslot);
-        Location l = getLocation(roomNum);
-        if (t == null || l == null)
+    private static void validateRemove(Request r){
+        r.require(1);
+        if (!isViable(r, r.date))
             return;
-        Event e = new Event();
-        e.setDate(d);
-        e.setStartTime(t);
-        e.setLocation(l);
-        if (!ec.remove(e)){  //if the event does not exist in the calendar
-            System.out.println("Cannot remove; event is not in the calendar! ");
-            return;
-        }
-        ec.remove(e);
-        System.out.println("Event has been removed from the calendar!");
+        r.require(2);
+        checkTimeslot(r);
+        r.require(3);
+        checkLocation(r);
     }
 
     /**
-     * A helper method created to make a Date out of a tokenizer
-     * @param  dateToken the tokenizer containing the date token
-     * @return a date made out of the token
+     * A helper method made to check the arguments of a command printing the
+     * events between two dates, both included, ordered by date and timeslot
+     * @param r the request of the command
      */
-    private Date makeDate(StringTokenizer dateToken){
-        int month = Integer.parseInt(dateToken.nextToken()), day = Integer.parseInt(dateToken.nextToken()), year = Integer.parseInt(dateToken.nextToken());
-        return new Date(month, day, year);
+    private static void validatePrintRange(Request r){
+        r.require(1);
+        if (!r.date.isValid())
+            r.reject(r.date + ": Invalid calendar date!");
+        else if (!r.to.isValid())
+            r.reject(r.to + ": Invalid calendar date!");
+        else if (r.date.compareTo(r.to) > 0)
+            r.reject("The start date must not be after the end date!");
     }
 
     /**
-     * A helper method created to get the actual department enum based off
-     * the passed-in String
-     * @param department the String representation of the department
-     * @return the Department corresponding to the String, or null if it does not exist
+     * A helper method made to check the arguments of a command printing the
+     * next free timeslots, optionally only those of a single room
+     * @param r the request of the command
      */
-    private Department getDepartment(String department){
-        switch (department.toUpperCase()){
-            case "CS":
-                return Department.CS;
-            case "EE":
-                return Department.EE;
-            case "BAIT":
-                return Department.BAIT;
-            case "ITI":
-                return Department.ITI;
-            case "MATH":
-                return Department.MATH;
-            default:
-                return null;
+    private static void validateFindFree(Request r){
+        r.require(1);
+        if (r.number <= 0){
+            r.reject("The number of free timeslots must be positive!");
+            return;
         }
+        r.require(2);
+        if (r.hasLocation)
+            checkLocation(r);
     }
 
     /**
-     * A helper method created to get the actual timeslot enum based off
-     * the passed-in String
-     * @param timeslot the String representation of the timeslot
-     * @return the Timeslot corresponding to the String, or
-     * prints an error message and returns null if it does not exist
+     * A helper method created to check the timeslot of a request, rejecting it
+     * with an error message if the timeslot does not exist
+     * @param r the request whose timeslot is checked
      */
-    private Timeslot getTimeslot(String timeslot){
-        switch (timeslot.toLowerCase()){
-            case "afternoon":
-                return Timeslot.AFTERNOON;
-            case "morning":
-                return Timeslot.MORNING;
-            case "evening":
-                return Timeslot.EVENING;
-            default:
-                System.out.println("Invalid timeslot!");
-                return null;
-        }
+    private static void checkTimeslot(Request r){
+        if (r.timeslot == null)
+            r.reject("Invalid timeslot!");
     }
 
     /**
-     * A helper method created to get the actual location enum based off
-     * the passed-in String
-     * @param location the String representation of the location
-     * @return the Location corresponding to the room number, or
-     * prints an error message and returns null if it
-     * does not exist
+     * A helper method created to check the location of a request, rejecting it
+     * with an error message if no location has the room number given
+     * @param r the request whose location is checked
      */
-    private Location getLocation(String location){
-        location = location.toLowerCase();
-        for (Location l : Location.values())
-            if (location.equals(l.getRoomNum().toLowerCase()))
-                return l;
-        System.out.println("Invalid location!");
-        return null;
+    private static void checkLocation(Request r){
+        if (r.location == null)
+            r.reject("Invalid location!");
     }
 }
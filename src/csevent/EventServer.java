@@ -0,0 +1,134 @@
+package csevent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A server letting several clients organize one shared calendar at once. It
+ * listens on the loopback address only and gives every connection its own
+ * organizer session on its own virtual thread, so a client blocked on a slow
+ * network costs no platform thread. Clients send the same command lines as
+ * the console, and may send many before reading any responses. Every response
+ * is framed as its length in bytes, as a big-endian int, followed by that many
+ * bytes of UTF-8 text: first the greeting, then one response for each command
+ * line that is not blank, in order. After "Q", the closing message is sent as
+ * the last response and the connection is closed.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class EventServer implements Closeable {
+    /**
+     * The longest time to wait for the sessions to finish once the server is
+     * closed, in milliseconds
+     */
+    private static final long SHUTDOWN_WAIT = 5000;
+
+    /**
+     * The calendar every session organizes
+     */
+    private final ConcurrentEventCalendar calendar;
+
+    /**
+     * The journal every session records its changes in, or null
+     */
+    private final CommandJournal journal;
+
+    /**
+     * The channel connections are accepted on
+     */
+    private final ServerSocketChannel server;
+
+    /**
+     * The executor running each session on a virtual thread of its own
+     */
+    private final ExecutorService sessions;
+
+    /**
+     * Constructor for a server of the given calendar, listening on the given
+     * port of the loopback address
+     * @param calendar the calendar every session organizes
+     * @param journal the journal every change is recorded in, or null
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be listened on
+     */
+    EventServer(ConcurrentEventCalendar calendar, CommandJournal journal, int port) throws IOException {
+        this.calendar = calendar;
+        this.journal = journal;
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        sessions = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Accessor method for the port the server listens on
+     * @return the port, even if the server was asked for any free one
+     * @throws IOException if the server is closed
+     */
+    int getPort() throws IOException {return ((InetSocketAddress) server.getLocalAddress()).getPort();}
+
+    /**
+     * Accepts connections, starting a session for each one, until the server is closed
+     * @throws IOException if a connection cannot be accepted
+     */
+    void run() throws IOException {
+        try{
+            while (true){
+                SocketChannel client = server.accept();
+                sessions.execute(() -> serve(client));
+            }
+        }catch (AsynchronousCloseException closed){ //the server was closed
+        }
+    }
+
+    /**
+     * Runs a single client's session, until the client quits or hangs up. If a
+     * command fails in a way the organizer does not handle, the client is sent
+     * the failure as a response of its own before the session is ended, rather
+     * than being left waiting on a connection that just closes.
+     * @param client the client's connection
+     */
+    private void serve(SocketChannel client){
+        try (client){
+            BufferedSink out = new BufferedSink(client, true);
+            EventOrganizer organizer = new EventOrganizer(calendar, out);
+            organizer.setJournal(journal);
+            try{
+                organizer.run(Channels.newInputStream(client));
+            }catch (UncheckedIOException uioe){
+                throw uioe;
+            }catch (RuntimeException re){
+                out.println("Session ended, the command could not be handled: " + re);
+                out.endResponse();
+                out.flush();
+            }
+        }catch (IOException | UncheckedIOException e){ //the client hung up
+        }
+    }
+
+    /**
+     * Stops accepting connections, and closes the sessions still running, waiting
+     * a little for them to finish so no change is made after the server is closed
+     * @throws IOException if the server cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        sessions.shutdownNow(); //interrupting a session closes its connection
+        try{
+            sessions.awaitTermination(SHUTDOWN_WAIT, TimeUnit.MILLISECONDS);
+        }catch (InterruptedException ie){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package csevent;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  * This is a helper enum class to handle the locations of the events. There are 6 main
  * locations: ARC103, HLL114, BE_AUD, TIL232, MU302, and AB2225.
@@ -11,27 +15,27 @@ public enum Location {
     /**
      * Handles room 103 in the Allison Road Classroom building
      */
-    ALLISON_ROAD_CLASSROOM("ARC103"),
+    ALLISON_ROAD_CLASSROOM("ARC103", "Allison Road Classroom", "Busch"),
     /**
      * Handles room 114 in the Hill Center building
      */
-    HILL_CENTER("HLL114"),
+    HILL_CENTER("HLL114", "Hill Center", "Busch"),
     /**
      * Handles the auditorium in Beck Hall
      */
-    BECK_HALL("BE_AUD"),
+    BECK_HALL("BE_AUD", "Beck Hall", "Livingston"),
     /**
      * Handles room 232 in Tillett Hall
      */
-    TILLETT_HALL("TIL232"),
+    TILLETT_HALL("TIL232", "Tillett Hall", "Livingston"),
     /**
      * Handles room 2225 in the Academic Building
      */
-    ACADEMIC_BUILDING("AB2225"),
+    ACADEMIC_BUILDING("AB2225", "Academic Building", "College Avenue"),
     /**
      * Handles room 302 in Murray Hall
      */
-    MURRAY_HALL("MU302");
+    MURRAY_HALL("MU302", "Murray Hall", "College Avenue");
 
     /**
      * The room number assigned to each building: the auditorium for Beck Hall,
@@ -41,11 +45,48 @@ public enum Location {
     private final String roomNum;
 
     /**
-     * A mini constructor made to assign each location their room numbers
+     * The name of the building the room is in
+     */
+    private final String building;
+
+    /**
+     * The campus the building is on
+     */
+    private final String campus;
+
+    /**
+     * The room number followed by the building and campus, as written in reports
+     */
+    private final String label;
+
+    /**
+     * The ASCII bytes of the label, written straight into buffers
+     */
+    private final byte[] labelBytes;
+
+    /**
+     * The locations ordered by campus and then by building
+     */
+    private static final Location[] CAMPUS_ORDER = orderByCampus();
+
+    /**
+     * The locations, looked up by their room numbers
+     */
+    private static final EnumLookup<Location> BY_ROOM = new EnumLookup<>(values(), Location::getRoomNum, true);
+
+    /**
+     * A mini constructor made to assign each location their room numbers,
+     * buildings, and campuses
      * @param roomNum the locations' specific room number
+     * @param building the name of the building the room is in
+     * @param campus the campus the building is on
      */
-    Location(String roomNum){
+    Location(String roomNum, String building, String campus){
         this.roomNum = roomNum;
+        this.building = building;
+        this.campus = campus;
+        label = roomNum + " (" + building + ", " + campus + ")";
+        labelBytes = TextCodec.ascii(label);
     }
 
     /**
@@ -54,4 +95,75 @@ public enum Location {
      * @return the room number associated with each respective building
      */
     public String getRoomNum(){return roomNum;}
+
+    /**
+     * Accessor method for the name of the building the room is in
+     * @return the name of the building
+     */
+    public String getBuilding(){return building;}
+
+    /**
+     * Accessor method for the campus the building is on
+     * @return the name of the campus
+     */
+    public String getCampus(){return campus;}
+
+    /**
+     * Appends this location to the given output in the form ROOM (Building, Campus)
+     * @param out the output this location is appended to
+     * @return the given output
+     * @throws IOException if the output cannot be appended to
+     */
+    public Appendable appendTo(Appendable out) throws IOException {return out.append(label);}
+
+    /**
+     * Puts this location into the given buffer in the form ROOM (Building, Campus),
+     * as ASCII
+     * @param buf the buffer this location is put into
+     * @return the given buffer
+     * @throws java.nio.BufferOverflowException if the buffer has fewer than
+     * encodedLength() bytes left
+     */
+    public ByteBuffer encodeTo(ByteBuffer buf){return buf.put(labelBytes);}
+
+    /**
+     * Counts the bytes encodeTo puts into a buffer for this location
+     * @return the length of this location in the form ROOM (Building, Campus)
+     */
+    public int encodedLength(){return labelBytes.length;}
+
+    /**
+     * Accessor method for the locations ordered by campus, then building
+     * @return a new array holding the locations in campus order
+     */
+    public static Location[] inCampusOrder(){return CAMPUS_ORDER.clone();}
+
+    /**
+     * Orders the locations by campus, then building
+     * @return the locations in order
+     */
+    private static Location[] orderByCampus(){
+        Location[] locations = values();
+        Arrays.sort(locations, (l1, l2) -> {
+            int byCampus = l1.campus.compareTo(l2.campus);
+            return byCampus != 0 ? byCampus : l1.building.compareTo(l2.building);
+        });
+        return locations;
+    }
+
+    /**
+     * Finds the location with the given room number, ignoring case
+     * @param room the room number to look up
+     * @return the location with the room number, or null if none has it
+     */
+    public static Location fromRoom(CharSequence room){return BY_ROOM.get(room);}
+
+    /**
+     * Finds the location whose room number is written in the given bytes of a buffer, ignoring case
+     * @param buf the buffer holding the room number
+     * @param start the position of the first byte of the room number
+     * @param end the position just past the last byte of the room number
+     * @return the location with the room number, or null if none has it
+     */
+    static Location fromRoom(ByteBuffer buf, int start, int end){return BY_ROOM.get(buf, start, end);}
 }
@@ -0,0 +1,68 @@
+package csevent;
+
+/**
+ * An output sink that keeps all of its output in memory, such as for tests and
+ * benchmarks that should not touch the console.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+public class MemorySink implements OutputSink {
+    /**
+     * The output written so far
+     */
+    private final StringBuilder sb = new StringBuilder();
+
+    /**
+     * Appends the given text to the output
+     * @param csq the text to be appended; null appends "null"
+     * @return this sink
+     */
+    @Override
+    public MemorySink append(CharSequence csq){
+        sb.append(csq);
+        return this;
+    }
+
+    /**
+     * Appends part of the given text to the output
+     * @param csq the text to be appended from; null appends part of "null"
+     * @param start the index of the first character to be appended
+     * @param end the index just past the last character to be appended
+     * @return this sink
+     */
+    @Override
+    public MemorySink append(CharSequence csq, int start, int end){
+        sb.append(csq, start, end);
+        return this;
+    }
+
+    /**
+     * Appends the given character to the output
+     * @param c the character to be appended
+     * @return this sink
+     */
+    @Override
+    public MemorySink append(char c){
+        sb.append(c);
+        return this;
+    }
+
+    /**
+     * Does nothing, since the output is already where it needs to be
+     */
+    @Override
+    public void flush(){}
+
+    /**
+     * Throws away all of the output written so far
+     */
+    public void clear(){sb.setLength(0);}
+
+    /**
+     * Returns all of the output written so far.
+     * @return the output written so far
+     */
+    @Override
+    public String toString(){return sb.toString();}
+}
@@ -0,0 +1,459 @@
+package csevent;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The events of the calendar taking place in a single month, with their own
+ * booking index and their own ordered indexes. Every event of a month books a
+ * key below those of the next month, so the partitions of a calendar, taken in
+ * month order, are each a sorted run of the whole, and a report by date, place,
+ * or department reads them one after the other without merging. Only the order
+ * events were added in crosses partitions, which a sequence number, given out
+ * by the calendar across all of them, restores.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class MonthPartition {
+    /**
+     * The smallest number of events a partition starts out able to hold
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * The number of months in a year
+     */
+    private static final int MONTHS = 12;
+
+    /**
+     * The number of bits a booking key is shifted by to make room for the slot
+     * it is packed with when sorting
+     */
+    private static final int SLOT_BITS = 32;
+
+    /**
+     * The mask that extracts the slot out of a packed sort key
+     */
+    private static final long SLOT_MASK = 0xFFFFFFFFL;
+
+    /**
+     * The month of the partition, counted in months since year 0
+     */
+    private final long month;
+
+    /**
+     * The events of the month, in the order they were added, with null holes
+     * left by removals until the list is compacted
+     */
+    private Event[] events;
+
+    /**
+     * The packed booking key of the event in each slot of the list
+     */
+    private long[] keys;
+
+    /**
+     * The sequence number of the event in each slot of the list
+     */
+    private long[] sequence;
+
+    /**
+     * The number of slots of the list in use, counting the holes
+     */
+    private int size;
+
+    /**
+     * The number of events in the partition
+     */
+    private int count;
+
+    /**
+     * Maps the packed booking key of every event to the slot it occupies in the list
+     */
+    private final BookingIndex index;
+
+    /**
+     * The events ordered by packed booking key, so by date, then timeslot,
+     * then location
+     */
+    private final SortedRun byDate;
+
+    /**
+     * The events bucketed by location, each bucket in date order
+     */
+    private final EnumIndex<Location> byLocation;
+
+    /**
+     * The events bucketed by the department of their contact, each bucket in date order
+     */
+    private final EnumIndex<Department> byDepartment;
+
+    /**
+     * The events bucketed by timeslot, each bucket in date order
+     */
+    private final EnumIndex<Timeslot> byTimeslot;
+
+    /**
+     * Constructor for an empty partition of the given month
+     * @param month the month, counted in months since year 0
+     * @param capacity the number of events the partition is expected to hold
+     */
+    MonthPartition(long month, int capacity){
+        this.month = month;
+        capacity = Math.max(capacity, INITIAL_CAPACITY);
+        events = new Event[capacity];
+        keys = new long[capacity];
+        sequence = new long[capacity];
+        index = new BookingIndex(capacity);
+        byDate = new SortedRun();
+        byLocation = new EnumIndex<>(Location.class, Event::getLocation);
+        byDepartment = new EnumIndex<>(Department.class, e -> e.getContact().getDepartment());
+        byTimeslot = new EnumIndex<>(Timeslot.class, Event::getStartTime);
+    }
+
+    /**
+     * Finds the month the given date falls in
+     * @param date a valid date
+     * @return the month, counted in months since year 0
+     */
+    static long monthOf(Date date){return (long) date.getYear() * MONTHS + date.getMonth() - 1;}
+
+    /**
+     * Finds the first day of the given month
+     * @param month the month, counted in months since year 0
+     * @return the epoch day of the first of the month
+     */
+    static long firstDayOf(long month){
+        return new Date(Math.floorMod(month, MONTHS) + 1, 1, (int) Math.floorDiv(month, MONTHS)).toEpochDay();
+    }
+
+    /**
+     * Accessor method for the month of the partition
+     * @return the month, counted in months since year 0
+     */
+    long getMonth(){return month;}
+
+    /**
+     * Accessor method for the number of events in the partition
+     * @return the number of events
+     */
+    int getCount(){return count;}
+
+    /**
+     * Checks if an event with the given booking key is in the partition
+     * @param key the packed booking key
+     * @return true if it is, false otherwise
+     */
+    boolean contains(long key){return index.containsKey(key);}
+
+    /**
+     * Adds the given event, which must not be booked yet, to the list and every index
+     * @param e the event to be added
+     * @param key the packed booking key of the event
+     * @param seq the sequence number the event was added with
+     */
+    void add(Event e, long key, long seq){
+        append(e, key, seq);
+        indexOrdered(e, key);
+    }
+
+    /**
+     * Adds the given event to the list and the booking index only, leaving the
+     * ordered indexes to be filled in later by indexAppended
+     * @param e the event to be added
+     * @param key the packed booking key of the event
+     * @param seq the sequence number the event was added with
+     * @return false if an event is already booked with the same key, in which
+     * case nothing is added
+     */
+    boolean append(Event e, long key, long seq){
+        if (index.containsKey(key))
+            return false;
+        if (size == events.length){
+            if (size - count > (events.length >> 2))
+                compact();
+            else
+                resize(Math.max(events.length + (events.length >> 1), INITIAL_CAPACITY));
+        }
+        events[size] = e;
+        keys[size] = key;
+        sequence[size] = seq;
+        index.put(key, size++);
+        count++;
+        return true;
+    }
+
+    /**
+     * Adds the given event to the ordered indexes
+     * @param e the event
+     * @param key the packed booking key of the event
+     */
+    private void indexOrdered(Event e, long key){
+        byDate.add(key, e);
+        byLocation.add(key, e);
+        byDepartment.add(key, e);
+        byTimeslot.add(key, e);
+    }
+
+    /**
+     * Fills the ordered indexes with every event appended, in booking key order,
+     * which is much cheaper than adding them to the indexes in any order. Each
+     * event's key, taken relative to the first key of the month so it fits in
+     * the high half, is packed with its slot into a single long, and the longs
+     * are sorted as primitives; keys are unique, so no two of them tie. Every
+     * event is then appended to its bucket of each enum index in that order.
+     */
+    void indexAppended(){
+        long base = BookingKey.pack(firstDayOf(month), 0, 0);
+        long[] sortKeys = new long[count];
+        int n = 0;
+        for (int i = 0; i < size; i++)
+            if (events[i] != null)
+                sortKeys[n++] = ((keys[i] - base) << SLOT_BITS) | i;
+        Arrays.sort(sortKeys, 0, n);
+        long[] sortedKeys = new long[n];
+        Event[] sorted = new Event[n];
+        for (int i = 0; i < n; i++){
+            int slot = (int) (sortKeys[i] & SLOT_MASK);
+            sortedKeys[i] = keys[slot];
+            sorted[i] = events[slot];
+        }
+        byDate.addAll(sortedKeys, sorted, n);
+        byLocation.addAll(sortedKeys, sorted, n);
+        byDepartment.addAll(sortedKeys, sorted, n);
+        byTimeslot.addAll(sortedKeys, sorted, n);
+    }
+
+    /**
+     * Removes the event with the given booking key, if it is in the partition.
+     * Its slot is left empty so the other events keep their order, and the list
+     * is compacted once the holes outnumber the events.
+     * @param key the packed booking key
+     * @return the event removed, or null if there was none
+     */
+    Event remove(long key){
+        int slot = index.remove(key);
+        if (slot == BookingIndex.NOT_FOUND)
+            return null;
+        Event e = events[slot];
+        events[slot] = null;
+        byDate.remove(key);
+        byLocation.remove(key, e);
+        byDepartment.remove(key, e);
+        byTimeslot.remove(key, e);
+        count--;
+        if (size - count > count)
+            compact();
+        return e;
+    }
+
+    /**
+     * Slides every event down over the holes left behind by removed events,
+     * keeping their order, and updates the slots stored in the index
+     */
+    private void compact(){
+        int k = 0;
+        for (int i = 0; i < size; i++)
+            if (events[i] != null){
+                if (k != i){
+                    events[k] = events[i];
+                    keys[k] = keys[i];
+                    sequence[k] = sequence[i];
+                    events[i] = null;
+                    index.put(keys[k], k);
+                }
+                k++;
+            }
+        size = k;
+    }
+
+    /**
+     * Copies the used slots of the list into arrays of the given length
+     * @param capacity the new length of the list, at least the number of used slots
+     */
+    private void resize(int capacity){
+        events = Arrays.copyOf(events, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        sequence = Arrays.copyOf(sequence, capacity);
+    }
+
+    /**
+     * Makes sure the partition can hold at least the given number of events
+     * without having to grow again
+     * @param minCapacity the number of events the partition should be able to hold
+     */
+    void ensureCapacity(int minCapacity){
+        if (minCapacity > events.length - (size - count)){
+            compact();
+            if (minCapacity > events.length)
+                resize(Math.max(minCapacity, events.length + (events.length >> 1)));
+        }
+        index.ensureCapacity(minCapacity);
+        byDate.ensureCapacity(minCapacity);
+    }
+
+    /**
+     * Shrinks the partition down to the number of events it holds
+     */
+    void trimToSize(){
+        compact();
+        if (events.length > count)
+            resize(count);
+        index.trimToSize();
+        byDate.trimToSize();
+        byLocation.trimToSize();
+        byDepartment.trimToSize();
+        byTimeslot.trimToSize();
+    }
+
+    /**
+     * Accessor method for the events of the partition in date order. A range of
+     * dates is found in it by binary search over its keys.
+     * @return the events, ordered by date, then timeslot, then location, which
+     * must not be changed
+     */
+    SortedRun byDate(){return byDate;}
+
+    /**
+     * Accessor method for the events of the partition at the given location
+     * @param l the location
+     * @return the events at the location, in date order, which must not be changed
+     */
+    SortedRun at(Location l){return byLocation.get(l);}
+
+    /**
+     * Accessor method for the events of the partition whose contact is in the given department
+     * @param d the department
+     * @return the events of the department, in date order, which must not be changed
+     */
+    SortedRun of(Department d){return byDepartment.get(d);}
+
+    /**
+     * Accessor method for the events of the partition starting in the given timeslot
+     * @param t the timeslot
+     * @return the events in the timeslot, in date order, which must not be changed
+     */
+    SortedRun in(Timeslot t){return byTimeslot.get(t);}
+
+    /**
+     * Checks if any event of the partition is booked at or after the given key
+     * @param key the packed booking key
+     * @return true if one is, false otherwise
+     */
+    boolean reaches(long key){return count > 0 && byDate.keyAt(count - 1) >= key;}
+
+    /**
+     * Merges the lists of the given partitions back into the order their events
+     * were added, by always taking the event with the lowest sequence number
+     * among the heads of the lists. There are only ever a handful of months in
+     * use, so the heads are simply scanned rather than kept in a heap.
+     * @param partitions the partitions, which must not change during the walk
+     * @param n the number of partitions in the array to merge
+     * @return an iterator over every event of the partitions in the order they were added
+     */
+    static Iterator<Event> inOrderAdded(MonthPartition[] partitions, int n){return new AddedOrder(partitions, n);}
+
+    /**
+     * Copies out the events of several partitions in the order they were added,
+     * along with the sequence number each was added with
+     * @param partitions the partitions to be merged
+     * @param n the number of partitions in the array to merge
+     * @param events filled with the events, which must have room for all of them
+     * @param sequence filled with the sequence number of each event, matching the events
+     * @return the number of events copied
+     */
+    static int copyInOrderAdded(MonthPartition[] partitions, int n, Event[] events, long[] sequence){
+        AddedOrder order = new AddedOrder(partitions, n);
+        int k = 0;
+        while (order.hasNext()){
+            events[k] = order.next();
+            sequence[k++] = order.lastSequence;
+        }
+        return k;
+    }
+
+    /**
+     * A walk over the events of several partitions in the order they were added
+     */
+    private static final class AddedOrder implements Iterator<Event> {
+        /**
+         * The partitions being merged
+         */
+        private final MonthPartition[] partitions;
+
+        /**
+         * The slot of the next event to be taken from each partition
+         */
+        private final int[] heads;
+
+        /**
+         * The number of events left to be taken
+         */
+        private int remaining;
+
+        /**
+         * The sequence number of the event taken last
+         */
+        private long lastSequence;
+
+        /**
+         * Constructor for a walk starting at the first event of every partition
+         * @param partitions the partitions to be merged
+         * @param n the number of partitions in the array to merge
+         */
+        private AddedOrder(MonthPartition[] partitions, int n){
+            this.partitions = partitions;
+            heads = new int[n];
+            for (int i = 0; i < n; i++){
+                remaining += partitions[i].count;
+                heads[i] = partitions[i].nextEvent(0);
+            }
+        }
+
+        /**
+         * Checks if any event is left to be taken
+         * @return true if one is, false otherwise
+         */
+        @Override
+        public boolean hasNext(){return remaining > 0;}
+
+        /**
+         * Takes the event added earliest among those left
+         * @return the event
+         * @throws NoSuchElementException if every event has been taken
+         */
+        @Override
+        public Event next(){
+            if (remaining == 0)
+                throw new NoSuchElementException();
+            int lowest = -1;
+            long lowestSeq = Long.MAX_VALUE;
+            for (int i = 0; i < heads.length; i++){
+                MonthPartition p = partitions[i];
+                if (heads[i] < p.size && p.sequence[heads[i]] < lowestSeq){
+                    lowest = i;
+                    lowestSeq = p.sequence[heads[i]];
+                }
+            }
+            MonthPartition p = partitions[lowest];
+            Event e = p.events[heads[lowest]];
+            lastSequence = lowestSeq;
+            heads[lowest] = p.nextEvent(heads[lowest] + 1);
+            remaining--;
+            return e;
+        }
+    }
+
+    /**
+     * Finds the first slot of the list at or after the given one that holds an event
+     * @param slot the slot to start looking from
+     * @return the slot of the event, or the size of the list if there is none
+     */
+    private int nextEvent(int slot){
+        while (slot < size && events[slot] == null)
+            slot++;
+        return slot;
+    }
+}
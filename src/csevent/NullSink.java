@@ -0,0 +1,52 @@
+package csevent;
+
+/**
+ * An output sink that throws away all of its output, such as for benchmarks that
+ * should measure the calendar without any I/O.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+public final class NullSink implements OutputSink {
+    /**
+     * The only null sink, since it has no state
+     */
+    public static final NullSink INSTANCE = new NullSink();
+
+    /**
+     * A private constructor since the single instance is shared
+     */
+    private NullSink(){}
+
+    /**
+     * Throws away the given text
+     * @param csq the text
+     * @return this sink
+     */
+    @Override
+    public NullSink append(CharSequence csq){return this;}
+
+    /**
+     * Throws away part of the given text
+     * @param csq the text
+     * @param start the index of the first character
+     * @param end the index just past the last character
+     * @return this sink
+     */
+    @Override
+    public NullSink append(CharSequence csq, int start, int end){return this;}
+
+    /**
+     * Throws away the given character
+     * @param c the character
+     * @return this sink
+     */
+    @Override
+    public NullSink append(char c){return this;}
+
+    /**
+     * Does nothing, since nothing is ever buffered
+     */
+    @Override
+    public void flush(){}
+}
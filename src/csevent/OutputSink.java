@@ -0,0 +1,93 @@
+package csevent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The destination the event calendar and event organizer write their output to.
+ * Unlike a PrintStream, a sink only writes its output out when it is flushed or
+ * its buffer fills up, so a whole command or batch can be written at once.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+public interface OutputSink extends Appendable {
+    /**
+     * Appends the given text to the output
+     * @param csq the text to be appended; null appends "null"
+     * @return this sink
+     */
+    @Override
+    OutputSink append(CharSequence csq);
+
+    /**
+     * Appends part of the given text to the output
+     * @param csq the text to be appended from; null appends part of "null"
+     * @param start the index of the first character to be appended
+     * @param end the index just past the last character to be appended
+     * @return this sink
+     */
+    @Override
+    OutputSink append(CharSequence csq, int start, int end);
+
+    /**
+     * Appends the given character to the output
+     * @param c the character to be appended
+     * @return this sink
+     */
+    @Override
+    OutputSink append(char c);
+
+    /**
+     * Appends the given text to the output, followed by a newline
+     * @param line the line to be appended
+     * @return this sink
+     */
+    default OutputSink println(CharSequence line){return append(line).append('\n');}
+
+    /**
+     * Appends the given event to the output as written in reports, followed by
+     * a newline, without building a String for it first
+     * @param event the event to be appended
+     * @return this sink
+     */
+    default OutputSink println(Event event){
+        try{
+            event.appendTo(this);
+        }catch (IOException ioe){ //sinks do not throw checked exceptions
+            throw new UncheckedIOException(ioe);
+        }
+        return append('\n');
+    }
+
+    /**
+     * Appends each of the given events to the output as written in reports,
+     * each followed by a newline
+     * @param events the events to be appended, in order
+     * @return this sink
+     */
+    default OutputSink printAll(Event[] events){
+        for (Event e : events)
+            println(e);
+        return this;
+    }
+
+    /**
+     * Marks the end of the output of a single command. Sinks that frame their
+     * output, so a client sending several commands at once can tell the
+     * responses apart, end the current frame here; others ignore it.
+     */
+    default void endResponse(){}
+
+    /**
+     * Writes out any output that is still buffered
+     */
+    void flush();
+
+    /**
+     * Creates a sink writing to the console that flushes at the end of every line,
+     * for code that writes output without ever flushing it
+     * @return a new sink writing to the console
+     */
+    static OutputSink console(){return new BufferedSink(System.out, true);}
+}
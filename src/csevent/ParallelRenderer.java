@@ -0,0 +1,132 @@
+package csevent;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Renders long runs of events to bytes on the common fork-join pool. The run is
+ * split into chunks of consecutive events, each encoded into a buffer of its own
+ * exactly as a sink would write them, so writing the buffers out in order gives
+ * the same bytes as writing the events one at a time. Encoding an event only
+ * reads it and tables shared by every event, so chunks can be rendered at once.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class ParallelRenderer {
+    /**
+     * The fewest events worth rendering in parallel; handing shorter runs to the
+     * pool costs more than encoding them on the calling thread
+     */
+    static final int THRESHOLD = 4096;
+
+    /**
+     * The number of events rendered into each chunk
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Private constructor, since this class only has static helpers
+     */
+    private ParallelRenderer(){}
+
+    /**
+     * Checks if the given number of events is worth rendering in parallel, which
+     * it never is if the common pool has a single thread
+     * @param count the number of events
+     * @return true if they should be rendered in parallel, false otherwise
+     */
+    static boolean isWorthIt(int count){
+        return count >= THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Renders the given events, each followed by a newline, as UTF-8
+     * @param events the events in the order they are to be written
+     * @return the chunks of the output, each ready to be written, in order
+     */
+    static ByteBuffer[] render(Event[] events){
+        ByteBuffer[] chunks = new ByteBuffer[(events.length + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        if (chunks.length > 0)
+            ForkJoinPool.commonPool().invoke(new Render(events, chunks, 0, chunks.length));
+        return chunks;
+    }
+
+    /**
+     * The task rendering a range of chunks, splitting it in half until a single
+     * chunk is left
+     */
+    private static final class Render extends RecursiveAction {
+        /**
+         * The version of the task's serialized form; tasks are never actually
+         * serialized, since they only run within the pool that forks them
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The events being rendered
+         */
+        private final transient Event[] events;
+
+        /**
+         * The chunks the output is put in
+         */
+        private final transient ByteBuffer[] chunks;
+
+        /**
+         * The first chunk of the range
+         */
+        private final int from;
+
+        /**
+         * The chunk just past the range
+         */
+        private final int to;
+
+        /**
+         * Constructor for the task rendering the given range of chunks
+         * @param events the events being rendered
+         * @param chunks the chunks the output is put in
+         * @param from the first chunk of the range
+         * @param to the chunk just past the range
+         */
+        private Render(Event[] events, ByteBuffer[] chunks, int from, int to){
+            this.events = events;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Renders the range, forking half of it off if it is more than a chunk
+         */
+        @Override
+        protected void compute(){
+            if (to - from == 1){
+                chunks[from] = renderChunk(events, from * CHUNK_SIZE,
+                        Math.min(events.length, (from + 1) * CHUNK_SIZE));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Render(events, chunks, from, mid), new Render(events, chunks, mid, to));
+        }
+    }
+
+    /**
+     * Renders some consecutive events into a buffer sized to fit them exactly
+     * @param events the events being rendered
+     * @param start the index of the first event of the chunk
+     * @param end the index just past the last event of the chunk
+     * @return the buffer holding the chunk, ready to be written
+     */
+    private static ByteBuffer renderChunk(Event[] events, int start, int end){
+        int length = 0;
+        for (int i = start; i < end; i++)
+            length += events[i].encodedLength() + 1;
+        ByteBuffer chunk = ByteBuffer.allocate(length);
+        for (int i = start; i < end; i++)
+            events[i].encodeTo(chunk).put((byte) '\n');
+        return chunk.flip();
+    }
+}
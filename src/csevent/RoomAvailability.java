@@ -0,0 +1,145 @@
+package csevent;
+
+/**
+ * A bitmap of which rooms are booked in each timeslot of each day of the booking
+ * window. Bits are laid out in packed booking key order, so the location varies
+ * fastest, then the timeslot, then the day; scanning the bitmap forwards visits
+ * the slots in date order, and the bits of a single room are picked out with a
+ * precomputed mask.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class RoomAvailability {
+    /**
+     * The number of bits in each word of the bitmap
+     */
+    private static final int WORD_BITS = Long.SIZE;
+
+    /**
+     * The bits of each location within a word, indexed first by location ordinal
+     * and then by the location ordinal the word starts on
+     */
+    private static final long[][] ROOM_MASKS = roomMasks();
+
+    /**
+     * The epoch day of the first day in the window
+     */
+    private final long firstDay;
+
+    /**
+     * The number of days in the window
+     */
+    private final int days;
+
+    /**
+     * The booked bits, one per location per timeslot per day
+     */
+    private final long[] booked;
+
+    /**
+     * Constructor for a window where every room is free
+     * @param firstDay the epoch day of the first day in the window
+     * @param days the number of days in the window
+     */
+    RoomAvailability(long firstDay, int days){
+        this.firstDay = firstDay;
+        this.days = days;
+        booked = new long[(days * BookingKey.PER_DAY + WORD_BITS - 1) / WORD_BITS];
+    }
+
+    /**
+     * Accessor method for the first day of the window
+     * @return the epoch day of the first day in the window
+     */
+    long getFirstDay(){return firstDay;}
+
+    /**
+     * Accessor method for the number of bookings in the window, which bounds
+     * how many free bookings a search can find
+     * @param location the only location to count, or null for every location
+     * @return the number of bookings of the location in the window
+     */
+    int slots(Location location){
+        return days * (location == null ? BookingKey.PER_DAY : BookingKey.TIMESLOTS);
+    }
+
+    /**
+     * Marks the booking with the given key as taken, if it is inside the window
+     * @param key the packed booking key
+     */
+    void book(long key){
+        int bit = bitOf(key);
+        if (bit >= 0)
+            booked[bit / WORD_BITS] |= 1L << bit;
+    }
+
+    /**
+     * Marks the booking with the given key as free, if it is inside the window
+     * @param key the packed booking key
+     */
+    void release(long key){
+        int bit = bitOf(key);
+        if (bit >= 0)
+            booked[bit / WORD_BITS] &= ~(1L << bit);
+    }
+
+    /**
+     * Checks if the booking with the given key is free
+     * @param key the packed booking key
+     * @return true if the key is inside the window and not booked, false otherwise
+     */
+    boolean isFree(long key){
+        int bit = bitOf(key);
+        return bit >= 0 && (booked[bit / WORD_BITS] & (1L << bit)) == 0;
+    }
+
+    /**
+     * Finds the earliest free bookings in the window, in date order, then
+     * timeslot, then location
+     * @param location the only location to look at, or null for every location
+     * @param out the array filled with the packed keys of the free bookings
+     * @return the number of free bookings found, at most the length of out
+     */
+    int findFree(Location location, long[] out){
+        final int LAST_BIT = days * BookingKey.PER_DAY;
+        long base = firstDay * BookingKey.PER_DAY;
+        int found = 0;
+        for (int w = 0; w < booked.length && found < out.length; w++){
+            long free = ~booked[w];
+            int lastBits = LAST_BIT - w * WORD_BITS;
+            if (lastBits < WORD_BITS)
+                free &= (1L << lastBits) - 1;
+            if (location != null)
+                free &= ROOM_MASKS[location.ordinal()][(w * WORD_BITS) % BookingKey.LOCATIONS];
+            while (free != 0 && found < out.length){
+                out[found++] = base + (long) w * WORD_BITS + Long.numberOfTrailingZeros(free);
+                free &= free - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the bit of the booking with the given key
+     * @param key the packed booking key
+     * @return the bit of the booking, or -1 if it is outside the window
+     */
+    private int bitOf(long key){
+        long bit = key - firstDay * BookingKey.PER_DAY;
+        return bit < 0 || bit >= (long) days * BookingKey.PER_DAY ? -1 : (int) bit;
+    }
+
+    /**
+     * Builds the masks picking out the bits of each location within a word
+     * @return the masks, indexed by location ordinal and starting location ordinal
+     */
+    private static long[][] roomMasks(){
+        final int LOCATIONS = BookingKey.LOCATIONS;
+        long[][] masks = new long[LOCATIONS][LOCATIONS];
+        for (int start = 0; start < LOCATIONS; start++)
+            for (int b = 0; b < WORD_BITS; b++)
+                masks[(start + b) % LOCATIONS][start] |= 1L << b;
+        return masks;
+    }
+}
@@ -1,5 +1,11 @@
 package csevent;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
  * This is the main class for running the entire project.
  * @author Siddharth Sircar
@@ -8,10 +14,176 @@ package csevent;
  */
 public class RunProject1 {
     /**
-     * The main method for running the entire project
+     * The usage message printed when the arguments are not understood
+     */
+    private static final String USAGE = "Usage: RunProject1 [--batch commands.txt [--out results.txt]] [--pipeline]"
+            + " [--serve port] [--snapshot calendar.snap] [--journal calendar.journal [--sync always|interval|never]]";
+
+    /**
+     * The main method for running the entire project. With no arguments, commands
+     * are read from the console; with "--batch commands.txt", they are read from
+     * the given file, and "--out results.txt" sends the output to a file. With
+     * "--pipeline", commands are parsed, checked, applied, and written on separate
+     * threads, with the same output. With "--snapshot calendar.snap", the
+     * calendar is loaded from the given snapshot if there is one, and saved back
+     * to it once the commands are done. With
+     * "--journal calendar.journal", every add and remove is also recorded in the
+     * given journal, which is replayed on top of the snapshot at startup and
+     * emptied once the snapshot is saved; "--sync" picks when it is forced to disk.
+     * With "--serve port", commands are instead taken from clients connecting to
+     * the given port on the loopback address, all sharing the calendar, until the
+     * process is stopped, when the calendar is saved.
      * @param args the command-line arguments
      */
     public static void main(String[] args){
-        new EventOrganizer().run();
+        Path commands = null, results = null, snapshot = null, journalPath = null;
+        int port = -1;
+        boolean pipelined = false;
+        CommandJournal.SyncPolicy policy = CommandJournal.SyncPolicy.ALWAYS;
+        for (int i = 0; i < args.length; i++){
+            if (args[i].equals("--batch") && i + 1 < args.length)
+                commands = Paths.get(args[++i]);
+            else if (args[i].equals("--out") && i + 1 < args.length)
+                results = Paths.get(args[++i]);
+            else if (args[i].equals("--pipeline"))
+                pipelined = true;
+            else if (args[i].equals("--snapshot") && i + 1 < args.length)
+                snapshot = Paths.get(args[++i]);
+            else if (args[i].equals("--journal") && i + 1 < args.length)
+                journalPath = Paths.get(args[++i]);
+            else if (args[i].equals("--sync") && i + 1 < args.length)
+                policy = syncPolicy(args[++i]);
+            else if (args[i].equals("--serve") && i + 1 < args.length && args[i + 1].matches("\\d{1,5}"))
+                port = Integer.parseInt(args[++i]);
+            else
+                fail(USAGE);
+        }
+        EventCalendar calendar = new EventCalendar();
+        if (snapshot != null && Files.exists(snapshot)){
+            try{
+                calendar = EventCalendar.load(snapshot);
+            }catch (IOException ioe){
+                fail("Could not load snapshot: " + ioe.getMessage());
+            }
+        }
+        CommandJournal journal = null;
+        if (journalPath != null){
+            try{
+                journal = new CommandJournal(journalPath, policy, CommandJournal.DEFAULT_WINDOW);
+                journal.replay(calendar);
+            }catch (IOException ioe){
+                fail("Could not replay journal: " + ioe.getMessage());
+            }
+        }
+        if (port >= 0){
+            serve(new ConcurrentEventCalendar(calendar), journal, snapshot, port);
+            return;
+        }
+        EventOrganizer organizer = new EventOrganizer(calendar, new BufferedSink(System.out));
+        organizer.setJournal(journal);
+        organizer.setPipelined(pipelined);
+        try{
+            if (commands == null)
+                organizer.run();
+            else
+                organizer.runBatch(commands, results);
+        }catch (IOException | UncheckedIOException e){
+            saveAfterFailure(calendar, journal, snapshot);
+            fail("Could not run commands: " + e.getMessage());
+        }catch (RuntimeException re){ //a command that could not be handled
+            saveAfterFailure(calendar, journal, snapshot);
+            throw re;
+        }
+        try{
+            save(calendar, journal, snapshot);
+        }catch (IOException | UncheckedIOException e){
+            fail("Could not save snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the calendar after the commands stopped on a failure, so the changes
+     * made before it are kept, without exiting if it cannot be saved
+     * @param calendar the calendar to be saved
+     * @param journal the journal the changes were recorded in, or null
+     * @param snapshot the file the calendar is saved to, or null
+     */
+    private static void saveAfterFailure(BookingCalendar calendar, CommandJournal journal, Path snapshot){
+        try{
+            save(calendar, journal, snapshot);
+        }catch (IOException | UncheckedIOException e){
+            System.err.println("Could not save snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Serves the calendar to clients on the given port until the process is
+     * stopped, then closes the server and saves the calendar
+     * @param calendar the calendar shared by every client
+     * @param journal the journal every change is recorded in, or null
+     * @param snapshot the file the calendar is saved to, or null
+     * @param port the port to listen on, or 0 for any free port
+     */
+    private static void serve(ConcurrentEventCalendar calendar, CommandJournal journal, Path snapshot, int port){
+        EventServer server = null;
+        try{
+            server = new EventServer(calendar, journal, port);
+            System.out.println("Event server listening on port " + server.getPort());
+        }catch (IOException | IllegalArgumentException e){ //a port past 65535
+            fail("Could not start server: " + e.getMessage());
+        }
+        EventServer running = server;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try{
+                running.close();
+                save(calendar, journal, snapshot);
+            }catch (IOException | UncheckedIOException e){ //exiting from a shutdown hook would hang
+                System.err.println("Could not save snapshot: " + e.getMessage());
+            }
+        }));
+        try{
+            server.run();
+        }catch (IOException ioe){
+            fail("Could not accept connections: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * Saves the calendar to the snapshot, if there is one, emptying the journal
+     * once it has, then closes the journal, if there is one
+     * @param calendar the calendar to be saved
+     * @param journal the journal the changes were recorded in, or null
+     * @param snapshot the file the calendar is saved to, or null
+     * @throws IOException if the snapshot cannot be saved or the journal cannot be closed
+     */
+    private static void save(BookingCalendar calendar, CommandJournal journal, Path snapshot) throws IOException {
+        if (journal != null && snapshot != null)
+            journal.checkpoint(calendar, snapshot);
+        else if (snapshot != null)
+            calendar.save(snapshot);
+        if (journal != null)
+            journal.close();
+    }
+
+    /**
+     * Finds the journal sync policy with the given name, ignoring case
+     * @param name the name of the policy
+     * @return the sync policy, or exits with the usage message if there is none
+     */
+    private static CommandJournal.SyncPolicy syncPolicy(String name){
+        for (CommandJournal.SyncPolicy p : CommandJournal.SyncPolicy.values())
+            if (p.name().equalsIgnoreCase(name))
+                return p;
+        fail(USAGE);
+        return null;
+    }
+
+    /**
+     * Prints the given message to the error stream and exits with a failure status
+     * @param message the message to be printed
+     */
+    private static void fail(String message){
+        System.err.println(message);
+        System.exit(1);
     }
 }
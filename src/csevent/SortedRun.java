@@ -0,0 +1,196 @@
+package csevent;
+
+import java.util.Arrays;
+
+/**
+ * A run of events kept in packed booking key order, so in date order, then
+ * timeslot, then location. Keys and events are kept in parallel arrays, with
+ * the keys as primitives, so an insertion or removal is a binary search over
+ * the keys and a slide of the entries after it, without boxing the key or
+ * allocating a node. Events booked in date order, the usual case, are simply
+ * appended.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class SortedRun {
+    /**
+     * The smallest number of events a run holds once it has any
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * The keys every run starts out with, so a run nothing is added to costs no array
+     */
+    private static final long[] NO_KEYS = {};
+
+    /**
+     * The events every run starts out with, matching the keys
+     */
+    private static final Event[] NO_EVENTS = {};
+
+    /**
+     * The packed booking keys of the run, in ascending order
+     */
+    private long[] keys;
+
+    /**
+     * The event booked with each key
+     */
+    private Event[] events;
+
+    /**
+     * The number of events in the run
+     */
+    private int size;
+
+    /**
+     * A default constructor for an empty run
+     */
+    SortedRun(){
+        keys = NO_KEYS;
+        events = NO_EVENTS;
+    }
+
+    /**
+     * Accessor method for the number of events in the run
+     * @return the number of events
+     */
+    int size(){return size;}
+
+    /**
+     * Accessor method for the event at the given position of the run
+     * @param i the position, from 0 up to the size of the run
+     * @return the event
+     */
+    Event eventAt(int i){return events[i];}
+
+    /**
+     * Accessor method for the booking key at the given position of the run
+     * @param i the position, from 0 up to the size of the run
+     * @return the packed booking key
+     */
+    long keyAt(int i){return keys[i];}
+
+    /**
+     * Finds where the given key is, or would be, in the run
+     * @param key the packed booking key
+     * @return the position of the first key not less than the given one
+     */
+    int indexOf(long key){
+        int low = 0, high = size;
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Adds the given event to the run, which must not already hold its key
+     * @param key the packed booking key of the event
+     * @param e the event
+     */
+    void add(long key, Event e){
+        if (size == keys.length)
+            resize(Math.max(size + (size >> 1), INITIAL_CAPACITY));
+        int i = size == 0 || keys[size - 1] < key ? size : indexOf(key);
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(events, i, events, i + 1, size - i);
+        keys[i] = key;
+        events[i] = e;
+        size++;
+    }
+
+    /**
+     * Adds a batch of events given in booking key order, growing the run once.
+     * The run must not already hold any of their keys.
+     * @param keys the packed booking keys of the events, in ascending order
+     * @param events the events, matching the keys
+     * @param n the number of events in the arrays to add
+     */
+    void addAll(long[] keys, Event[] events, int n){
+        ensureCapacity(size + n);
+        for (int i = 0; i < n; i++)
+            add(keys[i], events[i]);
+    }
+
+    /**
+     * Appends every event of the given run, whose keys must all be greater than
+     * those of this run, growing the run once
+     * @param run the run whose events are appended
+     */
+    void append(SortedRun run){
+        ensureCapacity(size + run.size);
+        System.arraycopy(run.keys, 0, keys, size, run.size);
+        System.arraycopy(run.events, 0, events, size, run.size);
+        size += run.size;
+    }
+
+    /**
+     * Removes the event with the given key from the run, if it is there
+     * @param key the packed booking key
+     * @return true if it was removed, false otherwise
+     */
+    boolean remove(long key){
+        int i = indexOf(key);
+        if (i == size || keys[i] != key)
+            return false;
+        size--;
+        System.arraycopy(keys, i + 1, keys, i, size - i);
+        System.arraycopy(events, i + 1, events, i, size - i);
+        events[size] = null;
+        return true;
+    }
+
+    /**
+     * Copies part of the run into the given array
+     * @param from the first position of the part
+     * @param to the position just past the part
+     * @param dest the array the events are copied into
+     * @param at the index of the array the first event is copied to
+     * @return the index of the array just past the last event copied
+     */
+    int copyTo(int from, int to, Event[] dest, int at){
+        System.arraycopy(events, from, dest, at, to - from);
+        return at + to - from;
+    }
+
+    /**
+     * Copies the whole run into the given array
+     * @param dest the array the events are copied into
+     * @param at the index of the array the first event is copied to
+     * @return the index of the array just past the last event copied
+     */
+    int copyTo(Event[] dest, int at){return copyTo(0, size, dest, at);}
+
+    /**
+     * Makes sure the run can hold at least the given number of events without
+     * having to grow again
+     * @param minCapacity the number of events the run should be able to hold
+     */
+    void ensureCapacity(int minCapacity){
+        if (minCapacity > keys.length)
+            resize(minCapacity);
+    }
+
+    /**
+     * Shrinks the run down to the number of events it holds
+     */
+    void trimToSize(){
+        if (keys.length > size)
+            resize(size);
+    }
+
+    /**
+     * Copies the run into arrays of the given length
+     * @param capacity the new length of the arrays, at least the size of the run
+     */
+    private void resize(int capacity){
+        keys = Arrays.copyOf(keys, capacity);
+        events = Arrays.copyOf(events, capacity);
+    }
+}
@@ -0,0 +1,155 @@
+package csevent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A helper class made to write numbers and text out without building temporary
+ * Strings, either as characters to an Appendable or as UTF-8 to a byte buffer.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class TextCodec {
+    /**
+     * The base numbers are written out in
+     */
+    private static final int RADIX = 10;
+
+    /**
+     * The byte written in place of a character that cannot be encoded
+     */
+    static final byte REPLACEMENT = '?';
+
+    /**
+     * Private constructor, since this class only has static helpers
+     */
+    private TextCodec(){}
+
+    /**
+     * Finds the bytes of a label made of ASCII characters only
+     * @param label the label to be encoded
+     * @return the ASCII bytes of the label
+     */
+    static byte[] ascii(String label){return label.getBytes(StandardCharsets.US_ASCII);}
+
+    /**
+     * Counts the characters needed to write out a number
+     * @param n the number to be written
+     * @return the number of characters, including a minus sign if it is negative
+     */
+    static int digits(int n){
+        long v = n;
+        int count = 1;
+        if (v < 0){
+            count++;
+            v = -v;
+        }
+        for (; v >= RADIX; v /= RADIX)
+            count++;
+        return count;
+    }
+
+    /**
+     * Appends a number to the given output, one digit at a time
+     * @param out the output the number is appended to
+     * @param n the number to be appended
+     * @throws IOException if the output cannot be appended to
+     */
+    static void appendInt(Appendable out, int n) throws IOException {
+        long v = n, place = 1;
+        if (v < 0){
+            out.append('-');
+            v = -v;
+        }
+        while (place * RADIX <= v)
+            place *= RADIX;
+        for (; place > 0; place /= RADIX)
+            out.append((char) ('0' + (v / place) % RADIX));
+    }
+
+    /**
+     * Puts a number into the given buffer, one digit at a time
+     * @param buf the buffer the number is put into
+     * @param n the number to be put
+     */
+    static void putInt(ByteBuffer buf, int n){
+        long v = n, place = 1;
+        if (v < 0){
+            buf.put((byte) '-');
+            v = -v;
+        }
+        while (place * RADIX <= v)
+            place *= RADIX;
+        for (; place > 0; place /= RADIX)
+            buf.put((byte) ('0' + (v / place) % RADIX));
+    }
+
+    /**
+     * Counts the bytes needed to encode the given text as UTF-8
+     * @param s the text to be encoded
+     * @return the number of bytes in its encoding
+     */
+    static int utf8Length(CharSequence s){
+        final int ONE_BYTE = 0x80, TWO_BYTES = 0x800;
+        int length = 0;
+        for (int i = 0; i < s.length(); i++){
+            char c = s.charAt(i);
+            if (c < ONE_BYTE)
+                length++;
+            else if (c < TWO_BYTES)
+                length += 2;
+            else if (isPairAt(s, i)){
+                length += 4;
+                i++;
+            }else if (Character.isSurrogate(c))
+                length++;
+            else
+                length += 3;
+        }
+        return length;
+    }
+
+    /**
+     * Puts the given text into the buffer encoded as UTF-8. A surrogate without its
+     * other half is put as a '?', the same way String.getBytes would.
+     * @param buf the buffer the text is put into
+     * @param s the text to be encoded
+     */
+    static void putUtf8(ByteBuffer buf, CharSequence s){
+        final int ONE_BYTE = 0x80, TWO_BYTES = 0x800;
+        for (int i = 0; i < s.length(); i++){
+            char c = s.charAt(i);
+            if (c < ONE_BYTE)
+                buf.put((byte) c);
+            else if (c < TWO_BYTES){
+                buf.put((byte) (0xC0 | (c >> 6)));
+                buf.put((byte) (0x80 | (c & 0x3F)));
+            }else if (isPairAt(s, i)){
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf.put((byte) (0xF0 | (cp >> 18)));
+                buf.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                buf.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buf.put((byte) (0x80 | (cp & 0x3F)));
+            }else if (Character.isSurrogate(c))
+                buf.put(REPLACEMENT);
+            else{
+                buf.put((byte) (0xE0 | (c >> 12)));
+                buf.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buf.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Checks if a full surrogate pair starts at the given index of the text
+     * @param s the text to be checked
+     * @param i the index of the supposed first half of the pair
+     * @return true if both halves of a surrogate pair are there, false otherwise
+     */
+    private static boolean isPairAt(CharSequence s, int i){
+        return Character.isHighSurrogate(s.charAt(i)) && i + 1 < s.length()
+                && Character.isLowSurrogate(s.charAt(i + 1));
+    }
+}
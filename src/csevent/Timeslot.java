@@ -1,8 +1,11 @@
 package csevent;
 
+import java.nio.ByteBuffer;
+
 /**
  * A helper enum made to handle the 3 timeslots for scheduling events: morning, a
- * afternoon, and evening.
+ * afternoon, and evening. Each timeslot keeps a table of the times an event
+ * starting in it ends at, worked out once for every allowed duration.
  * @author Siddharth Sircar
  * @author Yash Shah
  * @since September 18, 2023
@@ -11,13 +14,164 @@ public enum Timeslot {
     /**
      * Handles the morning timeslot, 10:30 am
      */
-    MORNING,
+    MORNING(10, 30, false),
     /**
-     * Handles the afternoon timeslot, 2:00 pm
+     * Handles the afternoon timeslot, 2:30 pm
      */
-    AFTERNOON,
+    AFTERNOON(2, 30, true),
     /**
      * Handles the evening timeslot: 6:30 pm
      */
-    EVENING;
+    EVENING(6, 30, true);
+
+    /**
+     * The longest duration an event can have, in minutes
+     */
+    public static final int MAX_DURATION = 120;
+
+    /**
+     * The number of minutes in an hour
+     */
+    private static final int MINUTES_IN_HOUR = 60;
+
+    /**
+     * The number of hours on a 12-hour clock
+     */
+    private static final int HOURS_IN_HALF_DAY = 12;
+
+    /**
+     * The hour the timeslot starts at, on a 12-hour clock
+     */
+    private final int hour;
+
+    /**
+     * The minute the timeslot starts at
+     */
+    private final int minute;
+
+    /**
+     * Whether the timeslot starts in the afternoon
+     */
+    private final boolean pm;
+
+    /**
+     * The name of the timeslot in lower case, as the commands take it
+     */
+    private final String lowerName;
+
+    /**
+     * The time the timeslot starts at, in hh:mmam/hh:mmpm format
+     */
+    private final String startTime;
+
+    /**
+     * The time an event starting in this timeslot ends at, indexed by its duration
+     */
+    private final String[] endTimes;
+
+    /**
+     * The ASCII bytes of the starting time
+     */
+    private final byte[] startBytes;
+
+    /**
+     * The ASCII bytes of each ending time, indexed by the event's duration
+     */
+    private final byte[][] endBytes;
+
+    /**
+     * The timeslots, looked up by their names
+     */
+    private static final EnumLookup<Timeslot> BY_NAME = new EnumLookup<>(values(), Timeslot::name, true);
+
+    /**
+     * A mini constructor made to assign each timeslot its starting time
+     * @param hour the hour the timeslot starts at, on a 12-hour clock
+     * @param minute the minute the timeslot starts at
+     * @param pm whether the timeslot starts in the afternoon
+     */
+    Timeslot(int hour, int minute, boolean pm){
+        this.hour = hour;
+        this.minute = minute;
+        this.pm = pm;
+        lowerName = name().toLowerCase();
+        startTime = time(0);
+        startBytes = TextCodec.ascii(startTime);
+        endTimes = new String[MAX_DURATION + 1];
+        endBytes = new byte[MAX_DURATION + 1][];
+        for (int duration = 0; duration <= MAX_DURATION; duration++){
+            endTimes[duration] = time(duration);
+            endBytes[duration] = TextCodec.ascii(endTimes[duration]);
+        }
+    }
+
+    /**
+     * Accessor method for the name of the timeslot in lower case
+     * @return the name in lower case, as the commands take it
+     */
+    public String getLowerName(){return lowerName;}
+
+    /**
+     * Accessor method for the time the timeslot starts at
+     * @return the starting time, in hh:mmam/hh:mmpm format
+     */
+    public String getStartTime(){return startTime;}
+
+    /**
+     * Finds the time an event starting in this timeslot ends at
+     * @param duration the number of minutes the event lasts
+     * @return the ending time, in hh:mmam/hh:mmpm format
+     */
+    public String getEndTime(int duration){
+        if (duration >= 0 && duration <= MAX_DURATION)
+            return endTimes[duration];
+        return time(duration);
+    }
+
+    /**
+     * Accessor method for the ASCII bytes of the time the timeslot starts at.
+     * The array is shared, so it must not be changed.
+     * @return the bytes of the starting time
+     */
+    byte[] getStartBytes(){return startBytes;}
+
+    /**
+     * Finds the ASCII bytes of the time an event starting in this timeslot ends at.
+     * Arrays within the table are shared, so they must not be changed.
+     * @param duration the number of minutes the event lasts
+     * @return the bytes of the ending time
+     */
+    byte[] getEndBytes(int duration){
+        if (duration >= 0 && duration <= MAX_DURATION)
+            return endBytes[duration];
+        return TextCodec.ascii(time(duration));
+    }
+
+    /**
+     * Calculates the time the given number of minutes after the start of the timeslot
+     * @param duration the minutes after the starting time
+     * @return the new time, written in hh:mmam/hh:mmpm format
+     */
+    private String time(int duration){
+        int totalMinutes = (hour * MINUTES_IN_HOUR) + minute + duration;
+        int hours = totalMinutes / MINUTES_IN_HOUR, minutes = totalMinutes % MINUTES_IN_HOUR;
+        boolean endsInPm = hours >= HOURS_IN_HALF_DAY ? !pm : pm;
+        return String.format("%02d:%02d%s", hours, minutes, endsInPm ? "pm" : "am");
+    }
+
+    /**
+     * Finds the timeslot with the given name, ignoring case
+     * @param name the name to look up
+     * @return the timeslot with the name, or null if none has it
+     */
+    public static Timeslot fromName(CharSequence name){return BY_NAME.get(name);}
+
+    /**
+     * Finds the timeslot whose name is written in the given bytes of a buffer, ignoring case
+     * @param buf the buffer holding the name
+     * @param start the position of the first byte of the name
+     * @param end the position just past the last byte of the name
+     * @return the timeslot with the name, or null if none has it
+     */
+    static Timeslot fromName(ByteBuffer buf, int start, int end){return BY_NAME.get(buf, start, end);}
 }
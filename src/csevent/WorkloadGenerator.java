@@ -0,0 +1,428 @@
+package csevent;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A generator of organizer command lines in a given mix of kinds, such as valid
+ * and invalid adds, duplicates, removes, and reports. Bookings are spread over
+ * every location, department, and timeslot across the booking window. The
+ * generator keeps track of what the calendar would hold after each command, so
+ * a duplicate really is booked already, a remove really finds its event, and a
+ * remove of a missing event really misses. The same seed and mix always give
+ * the same lines.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+final class WorkloadGenerator {
+    /**
+     * The kinds of command lines made, each named in a mix by its name in lower case
+     */
+    enum Kind {
+        /**
+         * An add of a free booking inside the window
+         */
+        ADD("A"),
+        /**
+         * An add turned down for one of its arguments
+         */
+        ADD_INVALID("A invalid"),
+        /**
+         * An add of a booking already taken
+         */
+        ADD_DUPLICATE("A duplicate"),
+        /**
+         * A remove of a booked event
+         */
+        REMOVE("R"),
+        /**
+         * A remove of a booking nobody has
+         */
+        REMOVE_MISSING("R missing"),
+        /**
+         * The report of every event in the order they were added
+         */
+        PRINT("P"),
+        /**
+         * The report of every event by date
+         */
+        PRINT_BY_DATE("PE"),
+        /**
+         * The report of every event by campus
+         */
+        PRINT_BY_CAMPUS("PC"),
+        /**
+         * The report of every event by department
+         */
+        PRINT_BY_DEPARTMENT("PD"),
+        /**
+         * The report of the events between two dates
+         */
+        PRINT_RANGE("PR"),
+        /**
+         * A search for free bookings
+         */
+        FIND_FREE("F");
+
+        /**
+         * The label the kind is reported under
+         */
+        private final String label;
+
+        /**
+         * Constructor for a kind with the given label
+         * @param label the label the kind is reported under
+         */
+        Kind(String label){this.label = label;}
+
+        /**
+         * Accessor method for the label the kind is reported under
+         * @return the label
+         */
+        String getLabel(){return label;}
+    }
+
+    /**
+     * The mix used when none is given, loosely shaped like registration week:
+     * mostly adds, a fair share of them turned down, some changes of mind, and
+     * a few reports and searches for free rooms
+     */
+    static final String DEFAULT_MIX = "add=45,add_invalid=10,add_duplicate=8,remove=12,remove_missing=4,"
+            + "print=1,print_by_date=1,print_by_campus=1,print_by_department=1,print_range=4,find_free=13";
+
+    /**
+     * The most tries at finding a free or missing booking at random before
+     * settling for another kind of command
+     */
+    private static final int MAX_TRIES = 32;
+
+    /**
+     * The number of days outside the window that dates too early or too late fall in
+     */
+    private static final int OUTSIDE_DAYS = 60;
+
+    /**
+     * The longest range a range report asks for, in days
+     */
+    private static final int MAX_RANGE_DAYS = 31;
+
+    /**
+     * The most free bookings a search asks for
+     */
+    private static final int MAX_FREE = 10;
+
+    /**
+     * The shortest and longest durations of an event, in minutes
+     */
+    private static final int MIN_DURATION = 30, MAX_DURATION = 120;
+
+    /**
+     * The source of every choice the generator makes
+     */
+    private final Random random;
+
+    /**
+     * The weight of each kind in the mix, indexed by ordinal
+     */
+    private final int[] weights;
+
+    /**
+     * The sum of the weights of every kind
+     */
+    private final int totalWeight;
+
+    /**
+     * The epoch day of the first and last days of the booking window
+     */
+    private final long firstDay, lastDay;
+
+    /**
+     * The packed booking keys of the bookings taken, in no particular order
+     */
+    private final long[] booked;
+
+    /**
+     * The number of bookings taken
+     */
+    private int count;
+
+    /**
+     * Maps the key of every booking taken to its position in the list
+     */
+    private final BookingIndex positions;
+
+    /**
+     * Constructor for a generator of the given mix, as of the current booking window
+     * @param seed the seed every choice is made from
+     * @param weights the weight of each kind in the mix, indexed by ordinal
+     * @throws IllegalArgumentException if no kind has any weight
+     */
+    WorkloadGenerator(long seed, int[] weights){
+        int total = 0;
+        for (int w : weights)
+            total += w;
+        if (total <= 0)
+            throw new IllegalArgumentException("The mix must give some kind of command a weight");
+        random = new Random(seed);
+        this.weights = weights.clone();
+        totalWeight = total;
+        BookingClock clock = BookingClock.get();
+        firstDay = clock.today() + 1;
+        lastDay = clock.horizon();
+        booked = new long[(int) (lastDay - firstDay + 1) * BookingKey.PER_DAY];
+        positions = new BookingIndex(booked.length);
+    }
+
+    /**
+     * Reads a mix written as kind=weight pairs separated by commas, such as
+     * "add=80,remove=20"; kinds left out get no weight
+     * @param mix the mix
+     * @return the weight of each kind, indexed by ordinal
+     * @throws IllegalArgumentException if a kind or weight is not understood
+     */
+    static int[] parseMix(String mix){
+        int[] weights = new int[Kind.values().length];
+        for (String pair : mix.split(",")){
+            int eq = pair.indexOf('=');
+            if (eq < 0)
+                throw new IllegalArgumentException("Not a kind=weight pair: " + pair);
+            Kind kind;
+            int weight;
+            try{
+                kind = Kind.valueOf(pair.substring(0, eq).trim().toUpperCase(Locale.ROOT));
+                weight = Integer.parseInt(pair.substring(eq + 1).trim());
+            }catch (IllegalArgumentException iae){ //covers NumberFormatException too
+                throw new IllegalArgumentException("Not a kind=weight pair: " + pair);
+            }
+            if (weight < 0)
+                throw new IllegalArgumentException("Weights cannot be negative: " + pair);
+            weights[kind.ordinal()] = weight;
+        }
+        return weights;
+    }
+
+    /**
+     * Makes the next command line, picking its kind at random by weight. A kind
+     * that needs an existing booking, when there is none, or a free booking, when
+     * none could be found, gives way to another kind that can be made.
+     * @param line the builder the line is written to, without a newline
+     * @return the kind of the line made
+     */
+    Kind next(StringBuilder line){
+        int pick = random.nextInt(totalWeight);
+        Kind kind = Kind.values()[0];
+        for (Kind k : Kind.values()){
+            pick -= weights[k.ordinal()];
+            if (pick < 0){
+                kind = k;
+                break;
+            }
+        }
+        line.setLength(0);
+        switch (kind){
+            case ADD:
+                return add(line);
+            case ADD_INVALID:
+                invalidAdd(line);
+                return kind;
+            case ADD_DUPLICATE:
+                if (count == 0)
+                    return add(line);
+                appendAdd(line, booked[random.nextInt(count)], randomDepartment(), randomDuration());
+                return kind;
+            case REMOVE:
+                if (count == 0)
+                    return add(line);
+                long key = booked[random.nextInt(count)];
+                unbook(key);
+                appendBooking(line.append("R "), key);
+                return kind;
+            case REMOVE_MISSING:
+                long missing = freeBooking();
+                if (missing == Long.MIN_VALUE)
+                    missing = BookingKey.pack(lastDay + 1 + random.nextInt(OUTSIDE_DAYS), 0, 0);
+                appendBooking(line.append("R "), missing);
+                return kind;
+            case PRINT_RANGE:
+                long from = randomDay();
+                long to = Math.min(lastDay, from + random.nextInt(MAX_RANGE_DAYS));
+                line.append("PR ").append(Date.fromEpochDay(from)).append(' ').append(Date.fromEpochDay(to));
+                return kind;
+            case FIND_FREE:
+                line.append("F ").append(1 + random.nextInt(MAX_FREE));
+                if (random.nextBoolean())
+                    line.append(' ').append(randomLocation().getRoomNum());
+                return kind;
+            case PRINT:
+                line.append(Command.PRINT.getCode());
+                return kind;
+            case PRINT_BY_DATE:
+                line.append(Command.PRINT_BY_DATE.getCode());
+                return kind;
+            case PRINT_BY_CAMPUS:
+                line.append(Command.PRINT_BY_CAMPUS.getCode());
+                return kind;
+            default:
+                line.append(Command.PRINT_BY_DEPARTMENT.getCode());
+                return kind;
+        }
+    }
+
+    /**
+     * Makes an add of a free booking, or of a taken one if no free one was found
+     * @param line the builder the line is written to
+     * @return the kind of the line made
+     */
+    private Kind add(StringBuilder line){
+        long key = freeBooking();
+        if (key == Long.MIN_VALUE){
+            appendAdd(line, booked[random.nextInt(count)], randomDepartment(), randomDuration());
+            return Kind.ADD_DUPLICATE;
+        }
+        book(key);
+        appendAdd(line, key, randomDepartment(), randomDuration());
+        return Kind.ADD;
+    }
+
+    /**
+     * Makes an add that is turned down, for one of the reasons the organizer
+     * checks for, picked at random
+     * @param line the builder the line is written to
+     */
+    private void invalidAdd(StringBuilder line){
+        final int REASONS = 8;
+        long key = BookingKey.pack(randomDay(), random.nextInt(Timeslot.values().length),
+                random.nextInt(BookingKey.LOCATIONS));
+        Department d = randomDepartment();
+        String timeslot = Timeslot.values()[BookingKey.timeslot(key)].name().toLowerCase(Locale.ROOT);
+        String room = Location.values()[BookingKey.location(key)].getRoomNum();
+        String date = Date.fromEpochDay(BookingKey.epochDay(key)).toString();
+        String department = d.name(), email = emailOf(d);
+        int duration = randomDuration();
+        switch (random.nextInt(REASONS)){
+            case 0: //in the past
+                date = Date.fromEpochDay(firstDay - 1 - random.nextInt(OUTSIDE_DAYS)).toString();
+                break;
+            case 1: //past the booking window
+                date = Date.fromEpochDay(lastDay + 1 + random.nextInt(OUTSIDE_DAYS)).toString();
+                break;
+            case 2: //not a real calendar date
+                date = "2/30/" + Date.fromEpochDay(lastDay).getYear();
+                break;
+            case 3:
+                timeslot = "night";
+                break;
+            case 4:
+                room = "XYZ100";
+                break;
+            case 5:
+                department = "PHYS";
+                break;
+            case 6: //not a Rutgers address
+                email = d.name().toLowerCase(Locale.ROOT) + "@gmail.com";
+                break;
+            default:
+                duration = random.nextBoolean() ? MIN_DURATION - 15 : MAX_DURATION + 30;
+        }
+        line.append("A ").append(date).append(' ').append(timeslot).append(' ').append(room).append(' ')
+                .append(department).append(' ').append(email).append(' ').append(duration);
+    }
+
+    /**
+     * Finds a booking inside the window that is not taken, trying at random
+     * @return the packed booking key, or Long.MIN_VALUE if none was found
+     */
+    private long freeBooking(){
+        for (int i = 0; i < MAX_TRIES; i++){
+            long key = BookingKey.pack(randomDay(), random.nextInt(Timeslot.values().length),
+                    random.nextInt(BookingKey.LOCATIONS));
+            if (!positions.containsKey(key))
+                return key;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Marks the given booking as taken
+     * @param key the packed booking key
+     */
+    private void book(long key){
+        booked[count] = key;
+        positions.put(key, count++);
+    }
+
+    /**
+     * Marks the given booking as free again, moving the last booking taken
+     * into its place in the list
+     * @param key the packed booking key
+     */
+    private void unbook(long key){
+        int at = positions.remove(key);
+        long last = booked[--count];
+        if (at != count){
+            booked[at] = last;
+            positions.put(last, at);
+        }
+    }
+
+    /**
+     * Writes an add of the given booking
+     * @param line the builder the line is written to
+     * @param key the packed booking key
+     * @param d the department of the contact
+     * @param duration the duration of the event, in minutes
+     */
+    private static void appendAdd(StringBuilder line, long key, Department d, int duration){
+        appendBooking(line.append("A "), key);
+        line.append(' ').append(d.name()).append(' ').append(emailOf(d)).append(' ').append(duration);
+    }
+
+    /**
+     * Writes the date, timeslot, and room of the given booking
+     * @param line the builder the booking is written to
+     * @param key the packed booking key
+     */
+    private static void appendBooking(StringBuilder line, long key){
+        line.append(Date.fromEpochDay(BookingKey.epochDay(key))).append(' ')
+                .append(Timeslot.values()[BookingKey.timeslot(key)].name().toLowerCase(Locale.ROOT)).append(' ')
+                .append(Location.values()[BookingKey.location(key)].getRoomNum());
+    }
+
+    /**
+     * Finds the email of the given department
+     * @param d the department
+     * @return the department's address at Rutgers
+     */
+    private static String emailOf(Department d){return d.name().toLowerCase(Locale.ROOT) + "@rutgers.edu";}
+
+    /**
+     * Picks a day inside the booking window at random
+     * @return the epoch day
+     */
+    private long randomDay(){return firstDay + random.nextInt((int) (lastDay - firstDay + 1));}
+
+    /**
+     * Picks a location at random
+     * @return the location
+     */
+    private Location randomLocation(){return Location.values()[random.nextInt(BookingKey.LOCATIONS)];}
+
+    /**
+     * Picks a department at random
+     * @return the department
+     */
+    private Department randomDepartment(){
+        Department[] departments = Department.values();
+        return departments[random.nextInt(departments.length)];
+    }
+
+    /**
+     * Picks a duration the organizer accepts at random
+     * @return the duration, in minutes
+     */
+    private int randomDuration(){
+        final int STEP = 15;
+        return MIN_DURATION + STEP * random.nextInt((MAX_DURATION - MIN_DURATION) / STEP + 1);
+    }
+}
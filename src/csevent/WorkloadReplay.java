@@ -0,0 +1,404 @@
+package csevent;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A tool that makes a synthetic stream of organizer commands and replays it,
+ * reporting the throughput and the latency of each kind of command at the 50th,
+ * 99th, and 99.9th percentiles. Commands are replayed one at a time, each sent
+ * only once the response to the last has come back, so a latency covers a
+ * command's whole round trip. They are sent either to an organizer in the same
+ * process, over in-memory pipes, or over a loopback socket, to a server started
+ * in the same process or one already running. Either way the responses come
+ * framed the way the server frames them, so the replay can tell where each ends.
+ * @author Siddharth Sircar
+ * @author Yash Shah
+ * @since September 18, 2023
+ */
+public class WorkloadReplay {
+    /**
+     * The usage message printed when the arguments are not understood
+     */
+    private static final String USAGE = "Usage: WorkloadReplay [--commands n] [--warmup n] [--seed n]"
+            + " [--mix kind=weight,...] [--socket | --port port] [--write commands.txt]";
+
+    /**
+     * The number of commands measured, unless given on the command line
+     */
+    private static final int DEFAULT_COMMANDS = 100_000;
+
+    /**
+     * The number of commands replayed before any are measured, unless given on
+     * the command line
+     */
+    private static final int DEFAULT_WARMUP = 20_000;
+
+    /**
+     * The seed the commands are made from, unless given on the command line
+     */
+    private static final long DEFAULT_SEED = 20230918L;
+
+    /**
+     * The number of nanoseconds in a microsecond
+     */
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    /**
+     * The latencies of a single kind of command
+     */
+    private static final class Latencies {
+        /**
+         * The latencies measured, in nanoseconds, in the order measured
+         */
+        private long[] nanos = new long[1024];
+
+        /**
+         * The number of latencies measured
+         */
+        private int count;
+
+        /**
+         * Records the latency of a single command
+         * @param latency the latency, in nanoseconds
+         */
+        private void record(long latency){
+            if (count == nanos.length)
+                nanos = Arrays.copyOf(nanos, count * 2);
+            nanos[count++] = latency;
+        }
+
+        /**
+         * Adds every latency of the given kind to these
+         * @param other the latencies to be added
+         */
+        private void recordAll(Latencies other){
+            for (int i = 0; i < other.count; i++)
+                record(other.nanos[i]);
+        }
+
+        /**
+         * Builds the line of the results table for these latencies
+         * @param label the label of the kind of command
+         * @return the line
+         */
+        private String summary(String label){
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            long total = 0;
+            for (long n : sorted)
+                total += n;
+            return String.format(Locale.ROOT, "%-12s %9d %10.1f %10.1f %10.1f %10.1f %10.1f", label, count,
+                    total / NANOS_PER_MICRO / count, percentile(sorted, 0.5), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), sorted[count - 1] / NANOS_PER_MICRO);
+        }
+
+        /**
+         * Finds the given percentile of the sorted latencies, by nearest rank
+         * @param sorted the latencies, in increasing order
+         * @param p the percentile, as a fraction
+         * @return the latency at the percentile, in microseconds
+         */
+        private static double percentile(long[] sorted, double p){
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(rank, 1) - 1] / NANOS_PER_MICRO;
+        }
+    }
+
+    /**
+     * The channel commands are sent down
+     */
+    private final WritableByteChannel commands;
+
+    /**
+     * The channel framed responses come back on
+     */
+    private final ReadableByteChannel responses;
+
+    /**
+     * The buffer each response is read into, grown to hold the longest
+     */
+    private ByteBuffer response;
+
+    /**
+     * Constructor for a replay over the given channels, with the greeting not yet read
+     * @param commands the channel commands are sent down
+     * @param responses the channel framed responses come back on
+     */
+    private WorkloadReplay(WritableByteChannel commands, ReadableByteChannel responses){
+        this.commands = commands;
+        this.responses = responses;
+        response = ByteBuffer.allocate(1 << 16);
+    }
+
+    /**
+     * Makes the commands and replays them, or writes them to a file, and prints
+     * the results
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args){
+        int measured = DEFAULT_COMMANDS, warmup = DEFAULT_WARMUP, port = -1;
+        long seed = DEFAULT_SEED;
+        String mix = WorkloadGenerator.DEFAULT_MIX;
+        boolean socket = false;
+        Path write = null;
+        try{
+            for (int i = 0; i < args.length; i++){
+                if (args[i].equals("--commands") && i + 1 < args.length)
+                    measured = Integer.parseInt(args[++i]);
+                else if (args[i].equals("--warmup") && i + 1 < args.length)
+                    warmup = Integer.parseInt(args[++i]);
+                else if (args[i].equals("--seed") && i + 1 < args.length)
+                    seed = Long.parseLong(args[++i]);
+                else if (args[i].equals("--mix") && i + 1 < args.length)
+                    mix = args[++i];
+                else if (args[i].equals("--socket"))
+                    socket = true;
+                else if (args[i].equals("--port") && i + 1 < args.length && args[i + 1].matches("\\d{1,5}"))
+                    port = Integer.parseInt(args[++i]);
+                else if (args[i].equals("--write") && i + 1 < args.length)
+                    write = Paths.get(args[++i]);
+                else
+                    fail(USAGE);
+            }
+        }catch (NumberFormatException nfe){
+            fail(USAGE);
+        }
+        if (measured < 1 || warmup < 0)
+            fail(USAGE);
+        WorkloadGenerator generator = null;
+        try{
+            generator = new WorkloadGenerator(seed, WorkloadGenerator.parseMix(mix));
+        }catch (IllegalArgumentException iae){
+            fail(iae.getMessage());
+        }
+        try{
+            if (write != null)
+                writeScript(generator, warmup + measured, write);
+            else if (port >= 0)
+                replayTo(port, generator, warmup, measured);
+            else if (socket)
+                replayOverSocket(generator, warmup, measured);
+            else
+                replayInProcess(generator, warmup, measured);
+        }catch (IOException | UncheckedIOException e){
+            fail("Could not replay commands: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the given number of commands to a file, followed by "Q", so they
+     * can be run by the organizer in batch mode
+     * @param generator the generator the commands are made by
+     * @param n the number of commands
+     * @param path the file the commands are written to
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeScript(WorkloadGenerator generator, int n, Path path) throws IOException {
+        StringBuilder script = new StringBuilder(), line = new StringBuilder();
+        for (int i = 0; i < n; i++){
+            generator.next(line);
+            script.append(line).append('\n');
+        }
+        script.append(Command.QUIT.getCode()).append('\n');
+        Files.write(path, script.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.println("Wrote " + n + " commands to " + path);
+    }
+
+    /**
+     * Replays the commands to an organizer of a new calendar running on a thread
+     * of its own in this process, linked by a pipe each way
+     * @param generator the generator the commands are made by
+     * @param warmup the number of commands replayed before any are measured
+     * @param measured the number of commands measured
+     * @throws IOException if the pipes cannot be opened or used
+     */
+    private static void replayInProcess(WorkloadGenerator generator, int warmup, int measured) throws IOException {
+        Pipe in = Pipe.open(), out = Pipe.open();
+        EventOrganizer organizer = new EventOrganizer(new EventCalendar(), new BufferedSink(out.sink(), true));
+        Thread session = new Thread(() -> {
+            try{
+                organizer.run(Channels.newInputStream(in.source()));
+                out.sink().close();
+            }catch (IOException | UncheckedIOException e){ //the replay has stopped reading
+            }
+        }, "organizer");
+        session.setDaemon(true);
+        session.start();
+        try (WritableByteChannel commands = in.sink(); ReadableByteChannel responses = out.source()){
+            new WorkloadReplay(commands, responses).replay(generator, warmup, measured, "in-process");
+        }
+    }
+
+    /**
+     * Replays the commands to a server of a new calendar started in this process,
+     * over a loopback socket
+     * @param generator the generator the commands are made by
+     * @param warmup the number of commands replayed before any are measured
+     * @param measured the number of commands measured
+     * @throws IOException if the server cannot be started or reached
+     */
+    private static void replayOverSocket(WorkloadGenerator generator, int warmup, int measured) throws IOException {
+        try (EventServer server = new EventServer(new ConcurrentEventCalendar(), null, 0)){
+            Thread acceptor = new Thread(() -> {
+                try{
+                    server.run();
+                }catch (IOException ioe){
+                    System.err.println("Could not accept connections: " + ioe.getMessage());
+                }
+            }, "acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            replayTo(server.getPort(), generator, warmup, measured);
+        }
+    }
+
+    /**
+     * Replays the commands to a server already listening on the given port of
+     * the loopback address
+     * @param port the port the server listens on
+     * @param generator the generator the commands are made by
+     * @param warmup the number of commands replayed before any are measured
+     * @param measured the number of commands measured
+     * @throws IOException if the server cannot be reached
+     */
+    private static void replayTo(int port, WorkloadGenerator generator, int warmup, int measured) throws IOException {
+        try (SocketChannel client = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))){
+            client.socket().setTcpNoDelay(true);
+            new WorkloadReplay(client, client).replay(generator, warmup, measured, "socket, port " + port);
+        }
+    }
+
+    /**
+     * Replays the commands one at a time, measuring each one's round trip once
+     * the warmup is over, then quits and prints the results
+     * @param generator the generator the commands are made by
+     * @param warmup the number of commands replayed before any are measured
+     * @param measured the number of commands measured
+     * @param transport a description of how the commands are sent, for the results
+     * @throws IOException if a command cannot be sent or its response read
+     */
+    private void replay(WorkloadGenerator generator, int warmup, int measured, String transport) throws IOException {
+        WorkloadGenerator.Kind[] kinds = WorkloadGenerator.Kind.values();
+        Latencies[] latencies = new Latencies[kinds.length];
+        for (int i = 0; i < kinds.length; i++)
+            latencies[i] = new Latencies();
+        readResponse(); //the greeting
+        StringBuilder line = new StringBuilder();
+        ByteBuffer request = ByteBuffer.allocate(1 << 10);
+        long started = 0;
+        for (int i = 0; i < warmup + measured; i++){
+            if (i == warmup)
+                started = System.nanoTime();
+            WorkloadGenerator.Kind kind = generator.next(line);
+            request = encode(line, request);
+            long sent = System.nanoTime();
+            send(request);
+            readResponse();
+            if (i >= warmup)
+                latencies[kind.ordinal()].record(System.nanoTime() - sent);
+        }
+        long elapsed = System.nanoTime() - started;
+        send(encode(Command.QUIT.getCode(), request));
+        readResponse();
+        printResults(latencies, measured, elapsed, transport);
+    }
+
+    /**
+     * Prints the throughput of the replay and the latencies of every kind of
+     * command that was sent, then of every command together
+     * @param latencies the latencies of each kind of command, indexed by ordinal
+     * @param measured the number of commands measured
+     * @param elapsed the time the measured commands took, in nanoseconds
+     * @param transport a description of how the commands were sent
+     */
+    private static void printResults(Latencies[] latencies, int measured, long elapsed, String transport){
+        System.out.println(String.format(Locale.ROOT, "Replayed %d commands (%s) in %.2f s: %.0f commands/s",
+                measured, transport, elapsed / 1e9, measured * 1e9 / elapsed));
+        System.out.println(String.format(Locale.ROOT, "%-12s %9s %10s %10s %10s %10s %10s",
+                "Command", "count", "mean us", "p50 us", "p99 us", "p999 us", "max us"));
+        Latencies all = new Latencies();
+        for (WorkloadGenerator.Kind kind : WorkloadGenerator.Kind.values()){
+            Latencies l = latencies[kind.ordinal()];
+            if (l.count == 0)
+                continue;
+            System.out.println(l.summary(kind.getLabel()));
+            all.recordAll(l);
+        }
+        System.out.println(all.summary("all"));
+    }
+
+    /**
+     * Encodes a command line, followed by a newline, into the given buffer,
+     * or a bigger one if it does not fit
+     * @param line the command line
+     * @param buf the buffer to be reused if it is big enough
+     * @return the buffer holding the line, ready to be sent
+     */
+    private static ByteBuffer encode(CharSequence line, ByteBuffer buf){
+        int length = TextCodec.utf8Length(line) + 1;
+        if (buf.capacity() < length)
+            buf = ByteBuffer.allocate(length);
+        buf.clear();
+        TextCodec.putUtf8(buf, line);
+        return buf.put((byte) '\n').flip();
+    }
+
+    /**
+     * Sends the whole of the given buffer down the command channel
+     * @param buf the buffer holding the command line
+     * @throws IOException if the command cannot be sent
+     */
+    private void send(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining())
+            commands.write(buf);
+    }
+
+    /**
+     * Reads the next framed response, whose text is left in the response buffer
+     * @throws IOException if the response cannot be read, or the responses end first
+     */
+    private void readResponse() throws IOException {
+        response.clear().limit(Integer.BYTES);
+        readFully();
+        int length = response.getInt(0);
+        if (length > response.capacity())
+            response = ByteBuffer.allocate(Math.max(length, response.capacity() * 2));
+        response.clear().limit(length);
+        readFully();
+    }
+
+    /**
+     * Fills the response buffer up to its limit
+     * @throws IOException if the channel cannot be read, or ends first
+     */
+    private void readFully() throws IOException {
+        while (response.hasRemaining())
+            if (responses.read(response) < 0)
+                throw new EOFException("The organizer hung up");
+    }
+
+    /**
+     * Prints the given message to the error stream and exits with a failure status
+     * @param message the message to be printed
+     */
+    private static void fail(String message){
+        System.err.println(message);
+        System.exit(1);
+    }
+}